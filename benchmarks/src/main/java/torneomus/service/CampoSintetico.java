@@ -0,0 +1,51 @@
+package torneomus.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import torneomus.entity.Pareja;
+
+// Campo de parejas sintético para los benchmarks: sustituye a los repositorios. Genera las parejas y las filas
+// {pareja1Id, pareja2Id, ronda, jugado} tal y como las devuelve EnfrentamientoRepository.findResumenEnfrentamientos.
+// La densidad de pares ya jugados la marca el número de rondas previas: cada ronda es un emparejamiento
+// aleatorio de todo el campo, así que tras r rondas ha jugado aproximadamente una fracción r / (n - 1) de los pares.
+final class CampoSintetico {
+
+    final List<Pareja> parejas;
+    final List<Long> ids;
+    final List<Object[]> filas;
+
+    CampoSintetico(int numeroParejas, int rondasPrevias, long semilla) {
+        SplittableRandom random = new SplittableRandom(semilla);
+        this.parejas = new ArrayList<>(numeroParejas);
+        this.ids = new ArrayList<>(numeroParejas);
+        for (int i = 0; i < numeroParejas; i++) {
+            Pareja pareja = new Pareja("Pareja " + i);
+            pareja.setId((long) (i + 1));
+            pareja.setDescansos(random.nextInt(3));
+            parejas.add(pareja);
+            ids.add(pareja.getId());
+        }
+
+        this.filas = new ArrayList<>();
+        List<Long> orden = new ArrayList<>(ids);
+        for (int ronda = 1; ronda <= rondasPrevias; ronda++) {
+            Collections.shuffle(orden, new java.util.Random(random.nextLong()));
+            int i = 0;
+            if (orden.size() % 2 == 1) {
+                // Descanso: pareja2 == pareja1
+                filas.add(new Object[] {orden.get(0), orden.get(0), ronda, true});
+                i = 1;
+            }
+            for (; i + 1 < orden.size(); i += 2) {
+                filas.add(new Object[] {orden.get(i), orden.get(i + 1), ronda, true});
+            }
+        }
+    }
+
+    HistorialEnfrentamientos historial() {
+        return new HistorialEnfrentamientos(ids, filas);
+    }
+}
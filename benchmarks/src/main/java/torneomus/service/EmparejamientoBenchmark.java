@@ -0,0 +1,63 @@
+package torneomus.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+
+// Emparejamiento de una ronda completa (lo que hace generarSiguienteRonda entre cargar el historial y guardar)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class EmparejamientoBenchmark {
+
+    @Param({"8", "32", "128", "512", "2000"})
+    public int parejas;
+
+    // 0 = primera ronda; 6 = fase avanzada de un torneo de fiestas
+    @Param({"0", "2", "6"})
+    public int rondasPrevias;
+
+    @Param({"coste-minimo", "backtracking"})
+    public String estrategia;
+
+    private List<Pareja> campo;
+    private HistorialEnfrentamientos historial;
+    private EstrategiaEmparejamiento emparejador;
+    // Semilla del torneo sintético: cada invocación saca el azar de la ronda igual que TorneoService y repite
+    // exactamente el mismo emparejamiento
+    private long semilla;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        CampoSintetico sintetico = new CampoSintetico(parejas - parejas % 2, rondasPrevias, 42L);
+        campo = sintetico.parejas;
+        historial = sintetico.historial();
+        emparejador = "backtracking".equals(estrategia) ? new EmparejamientoBacktracking(new SimpleMeterRegistry()) : new EmparejamientoCosteMinimo();
+        semilla = 7L;
+    }
+
+    @Benchmark
+    public List<Enfrentamiento> emparejar() {
+        return emparejador.emparejar(campo, rondasPrevias + 1, historial, AleatorioRonda.para(semilla, rondasPrevias + 1));
+    }
+}
@@ -0,0 +1,44 @@
+package torneomus.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Construcción del historial en memoria a partir de las filas de la consulta (cargarHistorial)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class HistorialEnfrentamientosBenchmark {
+
+    @Param({"8", "32", "128", "512", "2000"})
+    public int parejas;
+
+    @Param({"0", "2", "6", "12"})
+    public int rondasPrevias;
+
+    private CampoSintetico campo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        campo = new CampoSintetico(parejas, rondasPrevias, 42L);
+    }
+
+    @Benchmark
+    public HistorialEnfrentamientos construir() {
+        return campo.historial();
+    }
+}
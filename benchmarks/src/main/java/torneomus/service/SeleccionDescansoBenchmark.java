@@ -0,0 +1,49 @@
+package torneomus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import torneomus.entity.Pareja;
+
+// Elección de la pareja que descansa con un número impar de parejas. Incluye la copia de la lista,
+// porque la selección la reordena y cada invocación debe partir del orden mezclado.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SeleccionDescansoBenchmark {
+
+    @Param({"9", "33", "129", "513", "2001"})
+    public int parejas;
+
+    private List<Pareja> campo;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        campo = new CampoSintetico(parejas, 0, 42L).parejas;
+        random = new SplittableRandom(7L);
+    }
+
+    @Benchmark
+    public Pareja elegir() {
+        return SeleccionDescanso.elegir(new ArrayList<>(campo), random);
+    }
+}
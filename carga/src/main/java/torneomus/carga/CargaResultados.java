@@ -0,0 +1,131 @@
+package torneomus.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import torneomus.Main;
+
+// Carga de resultados simultáneos con hilos de plataforma y con hilos virtuales en la misma ejecución. Como FiestaCarga,
+// arranca la aplicación dentro del proceso sobre H2 (perfil "carga"): una vez por modo, cada una con su propia base de
+// datos. En cada arranque se juega primero un torneo de calentamiento sin medir (JIT, pools, caches) y después otro
+// en el que, en cada ronda, se envían todos los resultados a la vez a /resultado con un número fijo de peticiones
+// simultáneas. Se compara el rendimiento de esas ráfagas; la inscripción y la generación no cuentan.
+// Los hilos virtuales necesitan Java 21: con una versión anterior solo se mide el modo de plataforma.
+public class CargaResultados {
+
+    private static final int JAVA_HILOS_VIRTUALES = 21;
+
+    // Rondas jugadas en un torneo y tiempo total de sus ráfagas de resultados
+    private static final class Partida {
+        private int rondas;
+        private long nanosEnRafagas;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Argumentos: parejas, peticiones simultáneas; los de la forma clave=valor son propiedades de Spring
+        List<String> numeros = new ArrayList<>();
+        List<String> opcionesSpring = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.contains("=")) {
+                opcionesSpring.add("--" + arg);
+            } else {
+                numeros.add(arg);
+            }
+        }
+        int parejas = numeros.size() > 0 ? Integer.parseInt(numeros.get(0)) : 64;
+        int simultaneas = numeros.size() > 1 ? Integer.parseInt(numeros.get(1)) : 32;
+
+        int java = Runtime.version().feature();
+        System.out.printf("Ráfagas de resultados: %d parejas, %d peticiones simultáneas, Java %d, %d procesadores%n%n",
+                parejas, simultaneas, java, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %8s %10s %10s %10s %10s %14s%n", "Hilos", "Rondas", "Resultados", "p50 ms", "p99 ms", "máx ms", "resultados/s");
+        medir("plataforma", false, parejas, simultaneas, opcionesSpring);
+        if (java >= JAVA_HILOS_VIRTUALES) {
+            medir("virtuales", true, parejas, simultaneas, opcionesSpring);
+        } else {
+            System.out.printf("%-12s no disponibles en Java %d (hace falta Java %d o posterior)%n", "virtuales", java, JAVA_HILOS_VIRTUALES);
+        }
+    }
+
+    // Arrancar la aplicación en el modo indicado, calentar, medir un torneo completo e imprimir su fila
+    private static void medir(String modo, boolean virtuales, int parejas, int simultaneas, List<String> opcionesSpring) throws Exception {
+        List<String> opciones = new ArrayList<>(opcionesSpring);
+        opciones.add("--spring.threads.virtual.enabled=" + virtuales);
+        opciones.add("--spring.datasource.url=jdbc:h2:mem:torneo_carga_" + modo + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        ConfigurableApplicationContext aplicacion = new SpringApplicationBuilder(Main.class)
+                .profiles("carga")
+                .run(opciones.toArray(new String[0]));
+        try {
+            ClienteTorneo cliente = new ClienteTorneo("http://localhost:" + aplicacion.getEnvironment().getProperty("local.server.port"));
+            jugar(cliente, parejas, simultaneas, new Latencias());
+
+            Latencias latencias = new Latencias();
+            long inicio = System.nanoTime();
+            Partida partida = jugar(cliente, parejas, simultaneas, latencias);
+            double segundos = partida.nanosEnRafagas / 1_000_000_000.0;
+            System.out.printf("%-12s %8d %10d %10.1f %10.1f %10.1f %14.1f   (torneo completo en %.1f s)%n", modo, partida.rondas,
+                    latencias.total(), latencias.percentil(50), latencias.percentil(99), latencias.maximo(),
+                    latencias.total() / segundos, (System.nanoTime() - inicio) / 1_000_000_000.0);
+        } finally {
+            aplicacion.close();
+        }
+    }
+
+    // Jugar un torneo nuevo hasta el final
+    private static Partida jugar(ClienteTorneo cliente, int parejas, int simultaneas, Latencias latencias) throws Exception {
+        long torneoId = cliente.crearTorneo("Carga " + System.nanoTime());
+        for (int i = 1; i <= parejas; i++) {
+            cliente.registrarPareja(torneoId, "Pareja " + i);
+        }
+        cliente.generarPrimerasDosRondas(torneoId);
+
+        Random random = new Random(42);
+        Partida partida = new Partida();
+        ExecutorService hilos = Executors.newFixedThreadPool(simultaneas);
+        try {
+            for (int ronda = 1; !cliente.estado(torneoId).path("torneoTerminado").asBoolean(); ronda++) {
+                List<JsonNode> enfrentamientos = cliente.enfrentamientos(torneoId, ronda);
+                if (enfrentamientos.isEmpty()) {
+                    cliente.generarNuevaRonda(torneoId);
+                    enfrentamientos = cliente.enfrentamientos(torneoId, ronda);
+                    if (enfrentamientos.isEmpty()) {
+                        throw new RuntimeException("No se ha generado la ronda " + ronda);
+                    }
+                }
+
+                List<Future<?>> envios = new ArrayList<>();
+                long inicio = System.nanoTime();
+                for (JsonNode enfrentamiento : enfrentamientos) {
+                    long enfrentamientoId = enfrentamiento.path("id").asLong();
+                    String ganador = random.nextBoolean() ? "pareja1" : "pareja2";
+                    long ganadorId = enfrentamiento.path(ganador).path("id").asLong();
+                    envios.add(hilos.submit(() -> latencias.medir(() -> cliente.registrarResultado(torneoId, enfrentamientoId, ganadorId))));
+                }
+                for (Future<?> envio : envios) {
+                    envio.get();
+                }
+                partida.nanosEnRafagas += System.nanoTime() - inicio;
+                partida.rondas++;
+
+                int pendientes = (int) cliente.enfrentamientos(torneoId, ronda).stream()
+                        .filter(e -> !e.path("jugado").asBoolean())
+                        .count();
+                if (pendientes > 0) {
+                    throw new RuntimeException("La ronda " + ronda + " ha quedado con " + pendientes + " resultados sin registrar");
+                }
+            }
+        } finally {
+            hilos.shutdown();
+        }
+        return partida;
+    }
+}
@@ -0,0 +1,129 @@
+package torneomus.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Cliente HTTP mínimo de la aplicación: los mismos formularios que envía el navegador y la API JSON para leer el estado.
+// Los formularios responden siempre con una redirección (los errores van en atributos flash), así que
+// cualquier otra respuesta se trata como fallo.
+public class ClienteTorneo {
+
+    private final String urlBase;
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+
+    public ClienteTorneo(String urlBase) {
+        this.urlBase = urlBase.endsWith("/") ? urlBase.substring(0, urlBase.length() - 1) : urlBase;
+        this.http = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // Crear un torneo y devolver su id (sale de la redirección a /?torneo=id)
+    public long crearTorneo(String nombre) {
+        HttpResponse<String> respuesta = enviarFormulario("/torneo/crear", Map.of("nombre", nombre));
+        String destino = respuesta.headers().firstValue("Location").orElse("");
+        int posicion = destino.indexOf("torneo=");
+        if (posicion < 0) {
+            throw new RuntimeException("No se ha podido crear el torneo '" + nombre + "'");
+        }
+        return Long.parseLong(destino.substring(posicion + "torneo=".length()));
+    }
+
+    public void registrarPareja(long torneoId, String nombre) {
+        enviarFormulario("/pareja/registrar?torneo=" + torneoId, Map.of("nombre", nombre));
+    }
+
+    // Inscribir varias parejas en una sola petición (una por línea)
+    public void importarParejas(long torneoId, List<String> nombres) {
+        enviarFormulario("/pareja/importar?torneo=" + torneoId, Map.of("texto", String.join("\n", nombres)));
+    }
+
+    public void generarPrimerasDosRondas(long torneoId) {
+        enviarFormulario("/ronda/primeras-dos?torneo=" + torneoId, Map.of());
+    }
+
+    public void generarNuevaRonda(long torneoId) {
+        enviarFormulario("/ronda/nueva?torneo=" + torneoId, Map.of());
+    }
+
+    public void registrarResultado(long torneoId, long enfrentamientoId, long ganadorId) {
+        enviarFormulario("/resultado?torneo=" + torneoId,
+                Map.of("enfrentamientoId", String.valueOf(enfrentamientoId), "ganadorId", String.valueOf(ganadorId)));
+    }
+
+    // Foto del estado del torneo (/api/torneo/estado)
+    public JsonNode estado(long torneoId) {
+        return leerJson("/api/torneo/estado?torneo=" + torneoId);
+    }
+
+    // Enfrentamientos de una ronda, sin descansos, con sus ids y los de sus parejas
+    public List<JsonNode> enfrentamientos(long torneoId, int ronda) {
+        List<JsonNode> enfrentamientos = new ArrayList<>();
+        for (JsonNode enfrentamiento : leerJson("/api/rondas/" + ronda + "?torneo=" + torneoId)) {
+            if (!enfrentamiento.path("descanso").asBoolean()) {
+                enfrentamientos.add(enfrentamiento);
+            }
+        }
+        return enfrentamientos;
+    }
+
+    // GET de una página y devolver el código de estado (el cuerpo se descarta)
+    public int obtenerPagina(String ruta) {
+        return enviar(HttpRequest.newBuilder(URI.create(urlBase + ruta)).GET().build()).statusCode();
+    }
+
+    private JsonNode leerJson(String ruta) {
+        HttpResponse<String> respuesta = enviar(HttpRequest.newBuilder(URI.create(urlBase + ruta))
+                .header("Accept", "application/json")
+                .GET()
+                .build());
+        if (respuesta.statusCode() != 200) {
+            throw new RuntimeException("GET " + ruta + " ha devuelto " + respuesta.statusCode());
+        }
+        try {
+            return json.readTree(respuesta.body());
+        } catch (IOException e) {
+            throw new RuntimeException("Respuesta no válida de " + ruta, e);
+        }
+    }
+
+    private HttpResponse<String> enviarFormulario(String ruta, Map<String, String> campos) {
+        String cuerpo = campos.entrySet().stream()
+                .map(c -> URLEncoder.encode(c.getKey(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(c.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        HttpResponse<String> respuesta = enviar(HttpRequest.newBuilder(URI.create(urlBase + ruta))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build());
+        if (respuesta.statusCode() != 302) {
+            throw new RuntimeException("POST " + ruta + " ha devuelto " + respuesta.statusCode());
+        }
+        return respuesta;
+    }
+
+    private HttpResponse<String> enviar(HttpRequest peticion) {
+        try {
+            return http.send(peticion, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new RuntimeException("Error de conexión con " + peticion.uri(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Petición interrumpida: " + peticion.uri(), e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package torneomus.carga;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Consultas SQL por endpoint. Hibernate llama a inspect() con cada sentencia que prepara; el filtro marca el hilo
+// con el endpoint de la petición en curso. Las sentencias de JdbcTemplate (insertarEnLote) no pasan por Hibernate
+// y no se cuentan.
+public class ContadorConsultas implements StatementInspector {
+
+    private static final ThreadLocal<String> endpointActual = new ThreadLocal<>();
+
+    private static final Map<String, LongAdder> peticiones = new ConcurrentHashMap<>();
+
+    private static final Map<String, LongAdder> consultas = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        String endpoint = endpointActual.get();
+        if (endpoint != null) {
+            consultas.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+        }
+        return sql;
+    }
+
+    // Media de sentencias SQL por petición de un endpoint
+    public static double consultasPorPeticion(String endpoint) {
+        LongAdder total = peticiones.get(endpoint);
+        if (total == null || total.sum() == 0) {
+            return 0;
+        }
+        LongAdder sentencias = consultas.get(endpoint);
+        return (sentencias != null ? sentencias.sum() : 0) / (double) total.sum();
+    }
+
+    // "GET /api/rondas/3" y "GET /api/rondas/4" cuentan como el mismo endpoint
+    static String endpoint(String metodo, String ruta) {
+        return metodo + " " + ruta.replaceAll("/\\d+", "/{n}");
+    }
+
+    // Registrado como bean por FiestaCarga
+    public static class Filtro extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            String endpoint = endpoint(request.getMethod(), request.getRequestURI());
+            peticiones.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+            endpointActual.set(endpoint);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                endpointActual.remove();
+            }
+        }
+    }
+}
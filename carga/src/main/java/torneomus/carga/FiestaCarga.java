@@ -0,0 +1,189 @@
+package torneomus.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import torneomus.Main;
+
+// Simulación de una fiesta completa contra la aplicación arrancada en este mismo proceso sobre H2 (perfil "carga").
+// Se inscriben las parejas, se generan las rondas y, en cada ronda, los árbitros envían todos los resultados a la vez
+// mientras los espectadores refrescan la página principal, la clasificación y el historial hasta que hay ganador.
+// Al terminar se muestra, por endpoint, la latencia p50/p99 vista por el cliente y las consultas SQL por petición.
+public class FiestaCarga {
+
+    // Pausa de cada espectador entre dos refrescos
+    private static final long PAUSA_ESPECTADOR_MS = 250;
+
+    private final ClienteTorneo cliente;
+    private final Map<String, Latencias> latencias = new ConcurrentSkipListMap<>();
+    private final AtomicLong errores = new AtomicLong();
+
+    private FiestaCarga(ClienteTorneo cliente) {
+        this.cliente = cliente;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Argumentos: parejas, árbitros, espectadores; los de la forma clave=valor son propiedades de Spring
+        List<String> numeros = new ArrayList<>();
+        List<String> opcionesSpring = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.contains("=")) {
+                opcionesSpring.add("--" + arg);
+            } else {
+                numeros.add(arg);
+            }
+        }
+        int parejas = numeros.size() > 0 ? Integer.parseInt(numeros.get(0)) : 64;
+        int arbitros = numeros.size() > 1 ? Integer.parseInt(numeros.get(1)) : 16;
+        int espectadores = numeros.size() > 2 ? Integer.parseInt(numeros.get(2)) : 50;
+
+        ConfigurableApplicationContext aplicacion = new SpringApplicationBuilder(Main.class, ContadorConsultas.Filtro.class, ReplicaEnlazada.class)
+                .profiles("carga")
+                .run(opcionesSpring.toArray(new String[0]));
+        try {
+            String puerto = aplicacion.getEnvironment().getProperty("local.server.port");
+            FiestaCarga fiesta = new FiestaCarga(new ClienteTorneo("http://localhost:" + puerto));
+            System.out.printf("Fiesta: %d parejas, %d árbitros, %d espectadores (hilos virtuales: %s)%n",
+                    parejas, arbitros, espectadores, aplicacion.getEnvironment().getProperty("spring.threads.virtual.enabled", "false"));
+            long inicio = System.nanoTime();
+            int rondas = fiesta.jugar(parejas, arbitros, espectadores);
+            System.out.printf("%d rondas en %.1f s%n%n", rondas, (System.nanoTime() - inicio) / 1_000_000_000.0);
+            fiesta.informe();
+            conexionesPorPool(aplicacion.getBean(MeterRegistry.class));
+        } finally {
+            aplicacion.close();
+        }
+    }
+
+    private int jugar(int parejas, int arbitros, int espectadores) throws Exception {
+        long torneoId = cliente.crearTorneo("Fiesta " + System.currentTimeMillis());
+        // La mitad de las parejas una a una en el formulario y la otra mitad importadas de golpe
+        List<String> importadas = new ArrayList<>();
+        for (int i = 1; i <= parejas; i++) {
+            String nombre = "Pareja " + i;
+            if (i <= parejas / 2) {
+                medir("POST", "/pareja/registrar", () -> cliente.registrarPareja(torneoId, nombre));
+            } else {
+                importadas.add(nombre);
+            }
+        }
+        medir("POST", "/pareja/importar", () -> cliente.importarParejas(torneoId, importadas));
+
+        AtomicBoolean terminado = new AtomicBoolean();
+        ExecutorService hilosEspectadores = Executors.newFixedThreadPool(espectadores);
+        for (int i = 0; i < espectadores; i++) {
+            hilosEspectadores.submit(() -> espectar(torneoId, terminado));
+        }
+
+        ExecutorService hilosArbitros = Executors.newFixedThreadPool(arbitros);
+        Random random = new Random(42);
+        int rondas = 0;
+        try {
+            medir("POST", "/ronda/primeras-dos", () -> cliente.generarPrimerasDosRondas(torneoId));
+            for (int ronda = 1; !medir("GET", "/api/torneo/estado", () -> cliente.estado(torneoId)).path("torneoTerminado").asBoolean(); ronda++) {
+                int numeroRonda = ronda;
+                List<JsonNode> enfrentamientos = medir("GET", "/api/rondas/" + ronda, () -> cliente.enfrentamientos(torneoId, numeroRonda));
+                if (enfrentamientos.isEmpty()) {
+                    medir("POST", "/ronda/nueva", () -> cliente.generarNuevaRonda(torneoId));
+                    enfrentamientos = medir("GET", "/api/rondas/" + ronda, () -> cliente.enfrentamientos(torneoId, numeroRonda));
+                    if (enfrentamientos.isEmpty()) {
+                        throw new RuntimeException("No se ha generado la ronda " + ronda);
+                    }
+                }
+
+                // Todos los resultados de la ronda a la vez, repartidos entre los árbitros
+                List<Future<?>> envios = new ArrayList<>();
+                for (JsonNode enfrentamiento : enfrentamientos) {
+                    long enfrentamientoId = enfrentamiento.path("id").asLong();
+                    long ganadorId = enfrentamiento.path(random.nextBoolean() ? "pareja1" : "pareja2").path("id").asLong();
+                    envios.add(hilosArbitros.submit(() ->
+                            medir("POST", "/resultado", () -> cliente.registrarResultado(torneoId, enfrentamientoId, ganadorId))));
+                }
+                for (Future<?> envio : envios) {
+                    envio.get();
+                }
+                rondas++;
+            }
+        } finally {
+            terminado.set(true);
+            hilosArbitros.shutdown();
+            hilosEspectadores.shutdown();
+            hilosEspectadores.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        return rondas;
+    }
+
+    // Un espectador refresca la página principal, la clasificación y el historial hasta que termina la fiesta
+    private void espectar(long torneoId, AtomicBoolean terminado) {
+        try {
+            while (!terminado.get()) {
+                pagina("/", torneoId);
+                Thread.sleep(PAUSA_ESPECTADOR_MS);
+                pagina("/clasificacion", torneoId);
+                Thread.sleep(PAUSA_ESPECTADOR_MS);
+                pagina("/historial", torneoId);
+                Thread.sleep(PAUSA_ESPECTADOR_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pagina(String ruta, long torneoId) {
+        int estado = medir("GET", ruta, () -> cliente.obtenerPagina(ruta + "?torneo=" + torneoId));
+        if (estado != 200) {
+            errores.incrementAndGet();
+        }
+    }
+
+    private void medir(String metodo, String ruta, Runnable peticion) {
+        latencias(metodo, ruta).medir(peticion);
+    }
+
+    private <T> T medir(String metodo, String ruta, Supplier<T> peticion) {
+        return latencias(metodo, ruta).medir(peticion);
+    }
+
+    private Latencias latencias(String metodo, String ruta) {
+        return latencias.computeIfAbsent(ContadorConsultas.endpoint(metodo, ruta), e -> new Latencias());
+    }
+
+    // Conexiones pedidas a cada pool (con el perfil "replica": primaria y réplica)
+    private static void conexionesPorPool(MeterRegistry registro) {
+        StringBuilder linea = new StringBuilder("\nConexiones por pool:");
+        for (Timer timer : registro.find("hikaricp.connections.acquire").timers()) {
+            linea.append(' ').append(timer.getId().getTag("pool")).append('=').append(timer.count());
+        }
+        System.out.println(linea);
+    }
+
+    private void informe() {
+        System.out.printf("%-26s %10s %10s %10s %10s %14s%n", "Endpoint", "Peticiones", "p50 ms", "p99 ms", "máx ms", "SQL/petición");
+        for (Map.Entry<String, Latencias> entrada : latencias.entrySet()) {
+            Latencias l = entrada.getValue();
+            System.out.printf("%-26s %10d %10.1f %10.1f %10.1f %14.1f%n", entrada.getKey(), l.total(),
+                    l.percentil(50), l.percentil(99), l.maximo(), ContadorConsultas.consultasPorPeticion(entrada.getKey()));
+        }
+        if (errores.get() > 0) {
+            System.out.printf("%n%d páginas no han respondido 200%n", errores.get());
+        }
+    }
+}
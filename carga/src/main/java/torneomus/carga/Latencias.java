@@ -0,0 +1,54 @@
+package torneomus.carga;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+// Latencias de un tipo de petición, recogidas desde varios hilos a la vez
+public class Latencias {
+
+    private final ConcurrentLinkedQueue<Long> muestras = new ConcurrentLinkedQueue<>();
+
+    public <T> T medir(Supplier<T> peticion) {
+        long inicio = System.nanoTime();
+        try {
+            return peticion.get();
+        } finally {
+            muestras.add(System.nanoTime() - inicio);
+        }
+    }
+
+    public void medir(Runnable peticion) {
+        medir(() -> {
+            peticion.run();
+            return null;
+        });
+    }
+
+    public int total() {
+        return muestras.size();
+    }
+
+    // Percentil (0-100) en milisegundos
+    public double percentil(double percentil) {
+        long[] ordenadas = muestras.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicion = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(posicion, ordenadas.length - 1))] / 1_000_000.0;
+    }
+
+    public double maximo() {
+        return muestras.stream().mapToLong(Long::longValue).max().orElse(0) / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%6d peticiones  p50 %8.1f ms  p99 %8.1f ms  máx %8.1f ms",
+                total(), percentil(50), percentil(99), maximo());
+    }
+
+    static String resumen(String nombre, Latencias latencias) {
+        return String.format("%-22s %s", nombre, latencias);
+    }
+}
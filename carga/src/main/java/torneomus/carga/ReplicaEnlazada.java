@@ -0,0 +1,55 @@
+package torneomus.carga;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+// Réplica de lectura para probar el enrutado en local con dos bases de datos H2 (perfil "replica").
+// La réplica es otra base de datos en memoria cuyas tablas son LINKED TABLE de solo lectura sobre la primaria:
+// ve los datos al instante (sin retraso) y cualquier escritura que se envíe por error a la réplica falla.
+// Registrado como bean por FiestaCarga; se ejecuta al arrancar, ya migrada la primaria y antes de la fiesta.
+@Profile("replica")
+public class ReplicaEnlazada implements ApplicationRunner {
+
+    private final Environment entorno;
+
+    public ReplicaEnlazada(Environment entorno) {
+        this.entorno = entorno;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        String urlPrimaria = entorno.getRequiredProperty("spring.datasource.url");
+        String usuario = entorno.getProperty("spring.datasource.username", "");
+        String clave = entorno.getProperty("spring.datasource.password", "");
+        try (Connection primaria = DriverManager.getConnection(urlPrimaria, usuario, clave);
+             Connection replica = DriverManager.getConnection(entorno.getRequiredProperty("torneo.replica.url"), usuario, clave);
+             Statement sentencia = replica.createStatement()) {
+            for (String tabla : tablas(primaria)) {
+                sentencia.execute("CREATE LINKED TABLE IF NOT EXISTS " + tabla + "('org.h2.Driver', '" + urlPrimaria + "', '"
+                        + usuario + "', '" + clave + "', '" + tabla + "') READONLY");
+            }
+        }
+    }
+
+    private static List<String> tablas(Connection primaria) throws SQLException {
+        List<String> tablas = new ArrayList<>();
+        try (Statement sentencia = primaria.createStatement();
+             ResultSet filas = sentencia.executeQuery("SELECT table_name FROM information_schema.tables " +
+                     "WHERE table_schema = 'public' AND table_type = 'BASE TABLE'")) {
+            while (filas.next()) {
+                tablas.add(filas.getString(1));
+            }
+        }
+        return tablas;
+    }
+}
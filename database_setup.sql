@@ -16,10 +16,12 @@ SELECT 'Base de datos torneo_mus creada exitosamente' AS mensaje;
 SHOW DATABASES LIKE 'torneo_mus';
 
 -- Nota: Las tablas se crearán automáticamente cuando ejecutes la aplicación Spring Boot
--- debido a la configuración: spring.jpa.hibernate.ddl-auto=update
+-- (migraciones de Flyway en src/main/resources/db/migration)
 
 -- Para verificar la conexión, puedes ejecutar:
 -- SHOW TABLES;
 -- DESCRIBE parejas;
 -- DESCRIBE enfrentamientos;
--- DESCRIBE pareja_rivales; 
\ No newline at end of file
+-- DESCRIBE torneos; 
+-- Torneos múltiples: el nombre de la pareja es único por torneo (torneo_id, nombre). En bases de datos
+-- existentes, la migración V1_1 elimina el índice único antiguo sobre parejas.nombre; no hay que tocar nada a mano.
@@ -6,7 +6,9 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
 import torneomus.repository.ParejaRepository;
+import torneomus.service.TorneoService;
 
 import java.util.List;
 
@@ -15,16 +17,18 @@ public class DataLoader {
 
 	private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
 
+	// Preparar el torneo por defecto y, si está vacío, sembrarlo con parejas de ejemplo
 	@Bean
-	CommandLineRunner initParejas(ParejaRepository parejaRepository) {
+	CommandLineRunner initParejas(ParejaRepository parejaRepository, TorneoService torneoService) {
 		return args -> {
-			long existentes = parejaRepository.count();
-			log.info("Parejas existentes al iniciar: {}", existentes);
+			Torneo torneo = torneoService.inicializarTorneo();
+			long existentes = parejaRepository.countByTorneo(torneo);
+			log.info("Parejas existentes al iniciar en el torneo {}: {}", torneo.getId(), existentes);
 			if (existentes == 0) {
 				List<String> nombres = List.of("Los Tigres", "Las Aguilas", "Los Lobos", "Las Panteras");
 				for (String nombre : nombres) {
-					if (!parejaRepository.existsByNombre(nombre)) {
-						parejaRepository.save(new Pareja(nombre));
+					if (!parejaRepository.existsByTorneoAndNombre(torneo, nombre)) {
+						parejaRepository.save(new Pareja(nombre, torneo));
 						log.info("Insertada pareja inicial: {}", nombre);
 					}
 				}
@@ -33,4 +37,4 @@ public class DataLoader {
 			}
 		};
 	}
-} 
\ No newline at end of file
+}
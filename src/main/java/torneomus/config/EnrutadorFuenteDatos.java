@@ -0,0 +1,52 @@
+package torneomus.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Elige la base de datos de cada conexión: las transacciones readOnly van a la réplica y todo lo demás
+// (escrituras y lecturas sin transacción) a la primaria. Va detrás de un LazyConnectionDataSourceProxy para que
+// la conexión se pida con la primera sentencia, cuando ya se sabe si la transacción es de solo lectura.
+public class EnrutadorFuenteDatos extends AbstractRoutingDataSource {
+
+    enum Destino {
+        PRIMARIA,
+        REPLICA
+    }
+
+    // Lecturas del hilo actual que deben ver las últimas escrituras aunque sean readOnly
+    private static final ThreadLocal<Boolean> soloPrimaria = new ThreadLocal<>();
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !Boolean.TRUE.equals(soloPrimaria.get());
+        return replica ? Destino.REPLICA : Destino.PRIMARIA;
+    }
+
+    // Ejecutar una lectura contra la primaria (sin réplica configurada no cambia nada). Solo decide la primera
+    // conexión: con open-in-view la petición conserva la que ya haya pedido, sea de la réplica o de la primaria.
+    public static <T> T enPrimaria(Supplier<T> lectura) {
+        Boolean anterior = marcarPrimaria();
+        try {
+            return lectura.get();
+        } finally {
+            restaurar(anterior);
+        }
+    }
+
+    static Boolean marcarPrimaria() {
+        Boolean anterior = soloPrimaria.get();
+        soloPrimaria.set(Boolean.TRUE);
+        return anterior;
+    }
+
+    static void restaurar(Boolean anterior) {
+        if (anterior == null) {
+            soloPrimaria.remove();
+        } else {
+            soloPrimaria.set(anterior);
+        }
+    }
+}
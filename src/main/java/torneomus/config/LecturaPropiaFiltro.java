@@ -0,0 +1,70 @@
+package torneomus.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Leer lo que uno acaba de escribir: cada formulario (POST) deja una cookie que dura lo que puede tardar la réplica
+// en ponerse al día, y mientras el navegador la envíe sus lecturas van a la primaria. Así la página a la que
+// redirige un resultado o una ronda nueva ya los muestra; los espectadores, que no escriben, leen de la réplica.
+// Las peticiones de escritura van enteras a la primaria: con open-in-view la petición conserva la primera conexión
+// que pide, y si fuera la de una lectura readOnly previa las escrituras acabarían en la réplica.
+@Component
+@ConditionalOnProperty(name = "torneo.replica.url")
+public class LecturaPropiaFiltro extends OncePerRequestFilter {
+
+    private static final String COOKIE = "torneo-escritura";
+
+    // Retraso máximo que se admite en la réplica
+    @Value("${torneo.replica.retraso-maximo-segundos:5}")
+    private int retrasoMaximoSegundos;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean escritura = !esLectura(request);
+        if (escritura) {
+            Cookie cookie = new Cookie(COOKIE, "1");
+            cookie.setPath("/");
+            cookie.setMaxAge(retrasoMaximoSegundos);
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        } else if (!escribioHacePoco(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Boolean anterior = EnrutadorFuenteDatos.marcarPrimaria();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            EnrutadorFuenteDatos.restaurar(anterior);
+        }
+    }
+
+    private static boolean esLectura(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return "GET".equals(metodo) || "HEAD".equals(metodo) || "OPTIONS".equals(metodo);
+    }
+
+    private static boolean escribioHacePoco(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
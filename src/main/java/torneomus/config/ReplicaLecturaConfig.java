@@ -0,0 +1,63 @@
+package torneomus.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Réplica de lectura (opcional): solo se activa si se configura torneo.replica.url. Sin ella la aplicación usa
+// el único pool que crea Spring Boot a partir de spring.datasource.*.
+// Con réplica hay dos pools ("primaria" y "replica", ver hikaricp.* en las métricas) y el DataSource que ven JPA
+// y JdbcTemplate los reparte por transacción (EnrutadorFuenteDatos). Flyway migra siempre la primaria.
+@Configuration
+@ConditionalOnProperty(name = "torneo.replica.url")
+public class ReplicaLecturaConfig {
+
+    // Pool de la primaria: spring.datasource.* y spring.datasource.hikari.*, como el que crearía Spring Boot
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource fuentePrimaria(DataSourceProperties propiedades) {
+        HikariDataSource fuente = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        fuente.setPoolName("primaria");
+        return fuente;
+    }
+
+    // Pool de la réplica: torneo.replica.url/username/password y torneo.replica.hikari.*
+    @Bean
+    @ConfigurationProperties("torneo.replica.hikari")
+    public HikariDataSource fuenteReplica(@Value("${torneo.replica.url}") String url,
+                                          @Value("${torneo.replica.username:${spring.datasource.username:}}") String usuario,
+                                          @Value("${torneo.replica.password:${spring.datasource.password:}}") String clave) {
+        HikariDataSource fuente = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(usuario).password(clave).build();
+        fuente.setPoolName("replica");
+        fuente.setReadOnly(true);
+        return fuente;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("fuentePrimaria") DataSource primaria, @Qualifier("fuenteReplica") DataSource replica) {
+        EnrutadorFuenteDatos enrutador = new EnrutadorFuenteDatos();
+        enrutador.setTargetDataSources(Map.of(
+                EnrutadorFuenteDatos.Destino.PRIMARIA, primaria,
+                EnrutadorFuenteDatos.Destino.REPLICA, replica));
+        enrutador.setDefaultTargetDataSource(primaria);
+        enrutador.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(enrutador);
+    }
+}
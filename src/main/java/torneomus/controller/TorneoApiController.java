@@ -0,0 +1,96 @@
+package torneomus.controller;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import torneomus.service.EstadoTorneo;
+import torneomus.service.EventosTorneo;
+import torneomus.service.NoEncontradoException;
+import torneomus.service.TorneoService;
+
+// API JSON para marcadores y móviles. Cada respuesta lleva como ETag la versión de los datos del torneo guardada
+// en su fila: si el cliente manda If-None-Match con la versión vigente se responde 304 tras una sola búsqueda
+// por clave primaria, la atienda la instancia que la atienda.
+@RestController
+@RequestMapping("/api")
+public class TorneoApiController {
+    
+    @Autowired
+    private TorneoService torneoService;
+    
+    @Autowired
+    private EventosTorneo eventosTorneo;
+    
+    // Estado del torneo (la misma foto cacheada que usa la página principal)
+    @GetMapping("/torneo/estado")
+    public EstadoTorneo estado(@RequestParam(name = "torneo", required = false) Long torneoId, WebRequest request) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        // La versión se lee antes que los datos: si alguien escribe entre medias, el siguiente sondeo los recarga
+        if (request.checkNotModified(torneoService.getVersionEstado(torneoId))) {
+            return null;
+        }
+        return torneoService.obtenerEstadoTorneo(torneoId);
+    }
+    
+    // Clasificación: activas por menos derrotas, eliminadas por más derrotas, y rivales jugados por pareja
+    @GetMapping("/clasificacion")
+    public Map<String, Object> clasificacion(@RequestParam(name = "torneo", required = false) Long torneoId, WebRequest request) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        if (request.checkNotModified(torneoService.getVersionEstado(torneoId))) {
+            return null;
+        }
+        EstadoTorneo estado = torneoService.obtenerEstadoTorneo(torneoId);
+        Map<String, Object> clasificacion = new LinkedHashMap<>();
+        clasificacion.put("torneo", estado.getTorneo());
+        clasificacion.put("parejasActivas", estado.getParejasActivas().stream()
+                .sorted(Comparator.comparingInt(EstadoTorneo.ParejaResumen::getDerrotas))
+                .collect(Collectors.toList()));
+        clasificacion.put("parejasEliminadas", estado.getParejasEliminadas().stream()
+                .sorted(Comparator.comparingInt(EstadoTorneo.ParejaResumen::getDerrotas).reversed())
+                .collect(Collectors.toList()));
+        clasificacion.put("rivales", torneoService.getRivalesJugados(torneoId));
+        return clasificacion;
+    }
+    
+    // Enfrentamientos de una ronda
+    @GetMapping("/rondas/{ronda}")
+    public List<EstadoTorneo.EnfrentamientoResumen> ronda(@PathVariable int ronda,
+                                                          @RequestParam(name = "torneo", required = false) Long torneoId,
+                                                          WebRequest request) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        if (request.checkNotModified(torneoService.getVersionEstado(torneoId))) {
+            return null;
+        }
+        return torneoService.getEnfrentamientosRondaEspecifica(torneoId, ronda).stream()
+                .map(EstadoTorneo.EnfrentamientoResumen::new)
+                .collect(Collectors.toList());
+    }
+    
+    // Eventos en vivo del torneo (Server-Sent Events): "resultado" y "ronda"
+    @GetMapping(path = "/torneo/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(@RequestParam(name = "torneo", required = false) Long torneoId) {
+        return eventosTorneo.suscribir(torneoService.resolverTorneo(torneoId));
+    }
+    
+    // Solo lo que no existe es un 404; cualquier otro error sigue su camino y acaba en un 500
+    @ExceptionHandler(NoEncontradoException.class)
+    public ResponseEntity<Map<String, String>> noEncontrado(NoEncontradoException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+}
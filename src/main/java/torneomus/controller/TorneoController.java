@@ -1,18 +1,37 @@
 package torneomus.controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import torneomus.entity.Enfrentamiento;
 import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
+import torneomus.service.CacheHistorialRondas;
+import torneomus.service.EstadoTorneo;
+import torneomus.service.ImportacionParejas;
 import torneomus.service.TorneoService;
 
 @Controller
@@ -21,153 +40,281 @@ public class TorneoController {
     @Autowired
     private TorneoService torneoService;
     
-    // Página principal
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    @Autowired
+    private CacheHistorialRondas cacheHistorialRondas;
+    
+    @Autowired
+    private ITemplateEngine templateEngine;
+    
+    // Rondas que se muestran en cada página del historial
+    private static final int RONDAS_POR_PAGINA = 5;
+    
+    private static final int PAREJAS_POR_PAGINA = 50;
+    
+    // Página principal (servida desde la foto cacheada del estado: mientras nadie escriba, cada visita cuesta una
+    // búsqueda por clave primaria de la versión del torneo en la primaria)
     @GetMapping("/")
-    public String index(Model model) {
-        model.addAttribute("estado", torneoService.obtenerEstadoTorneo());
-        model.addAttribute("torneoTerminado", torneoService.torneoTerminado());
-        model.addAttribute("parejaGanadora", torneoService.getParejaGanadora());
+    public String index(@RequestParam(name = "torneo", required = false) Long torneoId, Model model) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        EstadoTorneo estado = torneoService.obtenerEstadoTorneo(torneoId);
+        model.addAttribute("torneoId", torneoId);
+        model.addAttribute("estado", estado);
+        model.addAttribute("torneoTerminado", estado.isTorneoTerminado());
+        model.addAttribute("parejaGanadora", estado.getParejaGanadora());
         return "index";
     }
     
+    // Crear un torneo nuevo y pasar a él
+    @PostMapping("/torneo/crear")
+    public String crearTorneo(@RequestParam String nombre, RedirectAttributes redirectAttributes) {
+        try {
+            Torneo torneo = torneoService.crearTorneo(nombre);
+            redirectAttributes.addFlashAttribute("mensaje", "Torneo '" + torneo.getNombre() + "' creado correctamente");
+            return redirigir(torneo.getId());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/";
+    }
+    
     // Registrar nueva pareja
     @PostMapping("/pareja/registrar")
-    public String registrarPareja(@RequestParam String nombre, RedirectAttributes redirectAttributes) {
+    public String registrarPareja(@RequestParam(name = "torneo", required = false) Long torneoId, @RequestParam String nombre, RedirectAttributes redirectAttributes) {
         try {
-            torneoService.registrarPareja(nombre);
+            torneoId = torneoService.resolverTorneo(torneoId);
+            torneoService.registrarPareja(torneoId, nombre);
             redirectAttributes.addFlashAttribute("mensaje", "Pareja '" + nombre + "' registrada correctamente");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
-        return "redirect:/";
+        return redirigir(torneoId);
+    }
+    
+    // Importar varias parejas de una vez: texto pegado o fichero CSV/texto (si llega fichero, se usa el fichero)
+    @PostMapping("/pareja/importar")
+    public String importarParejas(@RequestParam(name = "torneo", required = false) Long torneoId,
+                                  @RequestParam(required = false) String texto,
+                                  @RequestParam(required = false) MultipartFile archivo,
+                                  RedirectAttributes redirectAttributes) {
+        try {
+            torneoId = torneoService.resolverTorneo(torneoId);
+            if (archivo != null && !archivo.isEmpty()) {
+                texto = new String(archivo.getBytes(), StandardCharsets.UTF_8);
+            }
+            if (texto == null || texto.isBlank()) {
+                redirectAttributes.addFlashAttribute("error", "No hay ninguna pareja que importar");
+                return redirigir(torneoId);
+            }
+            ImportacionParejas importacion = torneoService.importarParejas(torneoId, texto);
+            redirectAttributes.addFlashAttribute("mensaje", importacion.getRegistradas() + " parejas registradas correctamente");
+            if (importacion.hayErrores()) {
+                redirectAttributes.addFlashAttribute("erroresImportacion", importacion.getErrores());
+            }
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("error", "No se ha podido leer el fichero: " + e.getMessage());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return redirigir(torneoId);
     }
     
     // Generar las dos primeras rondas de una vez
     @PostMapping("/ronda/primeras-dos")
-    public String generarPrimerasDosRondas(RedirectAttributes redirectAttributes) {
+    public String generarPrimerasDosRondas(@RequestParam(name = "torneo", required = false) Long torneoId, RedirectAttributes redirectAttributes) {
         try {
-            if (!torneoService.puedeGenerarPrimerasDosRondas()) {
+            torneoId = torneoService.resolverTorneo(torneoId);
+            if (!torneoService.puedeGenerarPrimerasDosRondas(torneoId)) {
                 redirectAttributes.addFlashAttribute("error", "Solo se pueden generar las dos primeras rondas cuando el torneo está en ronda 0.");
-                return "redirect:/";
+                return redirigir(torneoId);
             }
-            List<Enfrentamiento> enfrentamientos = torneoService.generarPrimerasDosRondas();
+            List<Enfrentamiento> enfrentamientos = torneoService.generarPrimerasDosRondas(torneoId);
             redirectAttributes.addFlashAttribute("mensaje", 
                 "¡Primeras dos rondas generadas! Total: " + enfrentamientos.size() + " enfrentamientos");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
-        return "redirect:/";
+        return redirigir(torneoId);
     }
     
     // Generar nueva ronda
     @PostMapping("/ronda/nueva")
-    public String generarNuevaRonda(RedirectAttributes redirectAttributes) {
+    public String generarNuevaRonda(@RequestParam(name = "torneo", required = false) Long torneoId, RedirectAttributes redirectAttributes) {
         try {
-            if (!torneoService.puedeGenerarNuevaRonda()) {
+            torneoId = torneoService.resolverTorneo(torneoId);
+            if (!torneoService.puedeGenerarNuevaRonda(torneoId)) {
                 redirectAttributes.addFlashAttribute("error", "No puedes generar una nueva ronda: hay enfrentamientos pendientes en la ronda actual.");
-                return "redirect:/";
+                return redirigir(torneoId);
             }
-            List<Enfrentamiento> enfrentamientos = torneoService.generarSiguienteRonda();
+            List<Enfrentamiento> enfrentamientos = torneoService.generarSiguienteRonda(torneoId);
             redirectAttributes.addFlashAttribute("mensaje", 
                 "Nueva ronda generada con " + enfrentamientos.size() + " enfrentamientos");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
-        return "redirect:/";
+        return redirigir(torneoId);
     }
     
     // Mostrar formulario para registrar resultado
     @GetMapping("/resultado/{enfrentamientoId}")
-    public String mostrarFormularioResultado(@PathVariable Long enfrentamientoId, Model model) {
-        Enfrentamiento enfrentamiento = torneoService.getEnfrentamientosRondaActual().stream()
-                .filter(e -> e.getId().equals(enfrentamientoId))
-                .findFirst()
-                .orElse(null);
+    public String mostrarFormularioResultado(@PathVariable Long enfrentamientoId, @RequestParam(name = "torneo", required = false) Long torneoId, Model model) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        Enfrentamiento enfrentamiento = torneoService.getEnfrentamientoRondaActual(torneoId, enfrentamientoId);
         
         if (enfrentamiento == null) {
-            return "redirect:/";
+            return redirigir(torneoId);
         }
         
+        model.addAttribute("torneoId", torneoId);
         model.addAttribute("enfrentamiento", enfrentamiento);
         return "resultado";
     }
     
     // Registrar resultado
     @PostMapping("/resultado")
-    public String registrarResultado(@RequestParam Long enfrentamientoId, 
+    public String registrarResultado(@RequestParam(name = "torneo", required = false) Long torneoId,
+                                   @RequestParam Long enfrentamientoId, 
                                    @RequestParam Long ganadorId,
                                    RedirectAttributes redirectAttributes) {
         try {
-            torneoService.registrarResultado(enfrentamientoId, ganadorId);
+            torneoId = torneoService.resolverTorneo(torneoId);
+            torneoService.registrarResultado(torneoId, enfrentamientoId, ganadorId);
             redirectAttributes.addFlashAttribute("mensaje", "Resultado registrado correctamente");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
-        return "redirect:/";
+        return redirigir(torneoId);
     }
     
     // Mostrar clasificación
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     @GetMapping("/clasificacion")
-    public String mostrarClasificacion(Model model) {
-        // Usar métodos con fetch join para evitar LazyInitializationException
-        List<Pareja> parejasActivas = torneoService.getParejasActivasWithRivales();
-        List<Pareja> parejasEliminadas = torneoService.getParejasEliminadasWithRivales();
-        
-        // Ordenar las listas
-        parejasActivas.sort((p1, p2) -> Integer.compare(p1.getDerrotas(), p2.getDerrotas()));
-        parejasEliminadas.sort((p1, p2) -> Integer.compare(p2.getDerrotas(), p1.getDerrotas()));
+    public String mostrarClasificacion(@RequestParam(name = "torneo", required = false) Long torneoId,
+                                       @RequestParam(name = "pagina", required = false, defaultValue = "1") int pagina,
+                                       Model model) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        // Una página de la clasificación precalculada, ya ordenada: activas primero y después eliminadas
+        Page<Pareja> clasificacion = torneoService.getClasificacion(torneoId, pagina, PAREJAS_POR_PAGINA);
+        List<Pareja> parejasActivas = clasificacion.getContent().stream().filter(p -> !p.isEliminada()).collect(Collectors.toList());
+        List<Pareja> parejasEliminadas = clasificacion.getContent().stream().filter(Pareja::isEliminada).collect(Collectors.toList());
+        long totalActivas = torneoService.countParejasActivas(torneoId);
         
+        model.addAttribute("torneoId", torneoId);
         model.addAttribute("parejasActivas", parejasActivas);
         model.addAttribute("parejasEliminadas", parejasEliminadas);
+        model.addAttribute("primeraPosicion", clasificacion.getNumber() * PAREJAS_POR_PAGINA + 1);
+        model.addAttribute("pagina", clasificacion.getNumber() + 1);
+        model.addAttribute("totalPaginas", clasificacion.getTotalPages());
+        model.addAttribute("totalParejas", clasificacion.getTotalElements());
+        model.addAttribute("totalActivas", totalActivas);
+        model.addAttribute("totalEliminadas", clasificacion.getTotalElements() - totalActivas);
+        model.addAttribute("rivales", torneoService.getRivalesJugados(
+                clasificacion.getContent().stream().map(Pareja::getId).collect(Collectors.toList())));
         return "clasificacion";
     }
     
     // Mostrar historial de rondas
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     @GetMapping("/historial")
-    public String mostrarHistorial(Model model) {
-        int rondaActual = torneoService.getRondaActual();
+    public String mostrarHistorial(@RequestParam(name = "torneo", required = false) Long torneoId,
+                                   @RequestParam(name = "pagina", required = false) Integer pagina,
+                                   HttpServletRequest request, HttpServletResponse response,
+                                   Model model) {
+        torneoId = torneoService.resolverTorneo(torneoId);
+        int rondaActual = torneoService.getRondaActual(torneoId);
+        model.addAttribute("torneoId", torneoId);
         model.addAttribute("rondaActual", rondaActual);
 
         if (rondaActual == 0) {
             model.addAttribute("historial", java.util.Collections.emptyMap());
+            model.addAttribute("pagina", 1);
+            model.addAttribute("totalPaginas", 0);
             return "historial";
         }
 
-        // Mostrar todas las rondas desde el principio (ronda 1 hasta la actual)
-        java.util.Map<Integer, java.util.List<torneomus.entity.Enfrentamiento>> historial = new java.util.LinkedHashMap<>();
-        for (int i = 1; i <= rondaActual; i++) {
-            historial.put(i, torneoService.getEnfrentamientosPorRonda(i));
-        }
-        model.addAttribute("historial", historial);
+        // Paginar por rondas; por defecto la última página, que contiene la ronda actual
+        int totalPaginas = (rondaActual + RONDAS_POR_PAGINA - 1) / RONDAS_POR_PAGINA;
+        int paginaMostrada = (pagina == null) ? totalPaginas : Math.max(1, Math.min(pagina, totalPaginas));
+        int rondaDesde = (paginaMostrada - 1) * RONDAS_POR_PAGINA + 1;
+        int rondaHasta = Math.min(paginaMostrada * RONDAS_POR_PAGINA, rondaActual);
+
+        model.addAttribute("historial", renderizarRondas(torneoId, rondaActual, rondaDesde, rondaHasta, request, response));
+        model.addAttribute("pagina", paginaMostrada);
+        model.addAttribute("totalPaginas", totalPaginas);
         return "historial";
     }
 
+    // HTML de cada ronda del tramo [desde, hasta]. Las rondas cerradas salen de la cache; solo se consultan y
+    // renderizan las que faltan (normalmente solo la ronda en juego) y las cerradas se guardan para la próxima vez.
+    private Map<Integer, String> renderizarRondas(Long torneoId, int rondaActual, int rondaDesde, int rondaHasta,
+                                                  HttpServletRequest request, HttpServletResponse response) {
+        Map<Integer, String> rondas = new TreeMap<>();
+        // Versión del historial leída en esta transacción, antes que los enfrentamientos
+        long version = cacheHistorialRondas.version(torneoId);
+        int primeraSinCache = rondaHasta + 1;
+        for (int ronda = rondaDesde; ronda <= rondaHasta; ronda++) {
+            String html = ronda < rondaActual ? cacheHistorialRondas.obtener(torneoId, ronda, version) : null;
+            if (html != null) {
+                rondas.put(ronda, html);
+            } else {
+                primeraSinCache = Math.min(primeraSinCache, ronda);
+            }
+        }
+        if (primeraSinCache > rondaHasta) {
+            return rondas;
+        }
+
+        IWebExchange exchange = JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, response);
+        Map<Integer, List<Enfrentamiento>> historial = torneoService.getHistorial(torneoId, primeraSinCache, rondaHasta);
+        for (Map.Entry<Integer, List<Enfrentamiento>> entrada : historial.entrySet()) {
+            int ronda = entrada.getKey();
+            if (rondas.containsKey(ronda)) {
+                continue;
+            }
+            WebContext contexto = new WebContext(exchange, request.getLocale(), Map.of(
+                    "ronda", ronda, "enfrentamientos", entrada.getValue(), "rondaActual", rondaActual, "torneoId", torneoId));
+            String html = templateEngine.process("fragmentos/ronda-historial", Set.of("ronda"), contexto);
+            rondas.put(ronda, html);
+            // Cerrada: ya hay una ronda posterior y todos sus partidos tienen resultado
+            boolean cerrada = ronda < rondaActual && !entrada.getValue().isEmpty()
+                    && entrada.getValue().stream().allMatch(Enfrentamiento::isJugado);
+            if (cerrada) {
+                cacheHistorialRondas.guardar(torneoId, ronda, version, html);
+            }
+        }
+        return rondas;
+    }
+
     // Método eliminado: la mezcla ahora es automática en cada ronda
 
     // Verificar eliminación de parejas
     @PostMapping("/torneo/verificar-eliminacion")
-    public String verificarEliminacionParejas(RedirectAttributes redirectAttributes) {
+    public String verificarEliminacionParejas(@RequestParam(name = "torneo", required = false) Long torneoId, RedirectAttributes redirectAttributes) {
         try {
-            torneoService.verificarEliminacionParejas();
-            redirectAttributes.addFlashAttribute("mensaje", "Estado de eliminación de parejas verificado y corregido.");
+            torneoId = torneoService.resolverTorneo(torneoId);
+            torneoService.verificarEliminacionParejas(torneoId);
+            redirectAttributes.addFlashAttribute("mensaje", "Derrotas y eliminaciones recalculadas desde el registro de resultados.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "No se pudo verificar la eliminación: " + e.getMessage());
         }
-        return "redirect:/";
+        return redirigir(torneoId);
     }
     
     // Reiniciar torneo (borra datos)
     @PostMapping("/torneo/reiniciar")
-    public String reiniciarTorneo(RedirectAttributes redirectAttributes) {
+    public String reiniciarTorneo(@RequestParam(name = "torneo", required = false) Long torneoId, RedirectAttributes redirectAttributes) {
         try {
-            torneoService.reiniciarTorneo();
+            torneoId = torneoService.resolverTorneo(torneoId);
+            torneoService.reiniciarTorneo(torneoId);
             redirectAttributes.addFlashAttribute("mensaje", "Torneo reiniciado. Puedes registrar nuevas parejas.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "No se pudo reiniciar: " + e.getMessage());
         }
-        return "redirect:/";
+        return redirigir(torneoId);
+    }
+    
+    // Volver a la página principal del torneo indicado
+    private String redirigir(Long torneoId) {
+        return torneoId != null ? "redirect:/?torneo=" + torneoId : "redirect:/";
     }
 } 
\ No newline at end of file
@@ -3,31 +3,48 @@ package torneomus.entity;
 import jakarta.persistence.*;
 
 @Entity
+// Los índices de esta tabla los crean las migraciones (db/migration/V2__indices_consultas.sql)
 @Table(name = "enfrentamientos")
+// Asociaciones LAZY: cada consulta que vaya a pintar las parejas pide este grafo y las trae en la misma SELECT
+@NamedEntityGraph(name = Enfrentamiento.GRAFO_PAREJAS, attributeNodes = {
+        @NamedAttributeNode("pareja1"),
+        @NamedAttributeNode("pareja2"),
+        @NamedAttributeNode("ganador")
+})
 public class Enfrentamiento {
     
+    public static final String GRAFO_PAREJAS = "Enfrentamiento.parejas";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "pareja1_id", nullable = false)
     private Pareja pareja1;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "pareja2_id", nullable = true)
     private Pareja pareja2;
     
     @Column(nullable = false)
     private int ronda;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ganador_id")
     private Pareja ganador;
     
     @Column(nullable = false)
     private boolean jugado = false;
     
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "torneo_id")
+    private Torneo torneo;
+    
+    // Control optimista de concurrencia: dos árbitros corrigiendo el mismo resultado no se pisan
+    @Version
+    private int version;
+    
     // Constructores
     public Enfrentamiento() {}
     
@@ -35,6 +52,8 @@ public class Enfrentamiento {
         this.pareja1 = pareja1;
         this.pareja2 = pareja2;
         this.ronda = ronda;
+        // Un enfrentamiento pertenece al torneo de sus parejas
+        this.torneo = pareja1 != null ? pareja1.getTorneo() : null;
     }
     
     // Getters y Setters
@@ -70,6 +89,23 @@ public class Enfrentamiento {
         this.ronda = ronda;
     }
     
+    public Torneo getTorneo() {
+        return torneo;
+    }
+    
+    public void setTorneo(Torneo torneo) {
+        this.torneo = torneo;
+    }
+    
+    // Comparar por id sin inicializar el proxy LAZY del torneo
+    public boolean perteneceATorneo(Long torneoId) {
+        return torneo != null && torneo.getId() != null && torneo.getId().equals(torneoId);
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
     public Pareja getGanador() {
         return ganador;
     }
@@ -104,13 +140,26 @@ public class Enfrentamiento {
         if (!jugado || ganador == null) {
             return null;
         }
-        return ganador.equals(pareja1) ? pareja2 : pareja1;
+        return getRival(ganador);
     }
     
     public boolean involucraPareja(Pareja pareja) {
         if (pareja == null) return false;
-        if (pareja1 != null && pareja1.equals(pareja)) return true;
-        return pareja2 != null && pareja2.equals(pareja);
+        return mismaPareja(pareja1, pareja) || mismaPareja(pareja2, pareja);
+    }
+    
+    // La otra pareja del enfrentamiento
+    public Pareja getRival(Pareja pareja) {
+        return mismaPareja(pareja1, pareja) ? pareja2 : pareja1;
+    }
+    
+    // Comparar por id: con asociaciones LAZY una misma pareja puede llegar como proxy o como entidad
+    private static boolean mismaPareja(Pareja a, Pareja b) {
+        if (a == null || b == null) return false;
+        if (a.getId() != null && b.getId() != null) {
+            return a.getId().equals(b.getId());
+        }
+        return a == b;
     }
     
     @Override
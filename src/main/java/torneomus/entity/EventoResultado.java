@@ -0,0 +1,84 @@
+package torneomus.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+
+// Entrada del registro de resultados. Solo se añaden filas, nunca se modifican ni se borran (salvo al reiniciar el
+// torneo): un resultado corregido deja una ANULACION del anterior seguida del RESULTADO nuevo.
+// Las derrotas y eliminaciones de las parejas son la proyección de este registro (ver RegistroResultados).
+@Entity
+@Table(name = "eventos_resultado")
+public class EventoResultado {
+
+    public enum Tipo {
+        RESULTADO,  // el ganador gana el enfrentamiento: el perdedor suma una derrota
+        ANULACION   // se anula un RESULTADO anterior del mismo enfrentamiento: el perdedor recupera la derrota
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "torneo_id", nullable = false, updatable = false)
+    private Torneo torneo;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "enfrentamiento_id", nullable = false, updatable = false)
+    private Enfrentamiento enfrentamiento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private Tipo tipo;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ganador_id", nullable = false, updatable = false)
+    private Pareja ganador;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "perdedor_id", updatable = false)
+    private Pareja perdedor;
+
+    @Column(nullable = false, updatable = false)
+    private Instant registrado;
+
+    protected EventoResultado() {}
+
+    public EventoResultado(Tipo tipo, Enfrentamiento enfrentamiento, Pareja ganador, Pareja perdedor) {
+        this.tipo = tipo;
+        this.enfrentamiento = enfrentamiento;
+        this.torneo = enfrentamiento.getTorneo();
+        this.ganador = ganador;
+        this.perdedor = perdedor;
+        this.registrado = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Torneo getTorneo() {
+        return torneo;
+    }
+
+    public Enfrentamiento getEnfrentamiento() {
+        return enfrentamiento;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Pareja getGanador() {
+        return ganador;
+    }
+
+    public Pareja getPerdedor() {
+        return perdedor;
+    }
+
+    public Instant getRegistrado() {
+        return registrado;
+    }
+}
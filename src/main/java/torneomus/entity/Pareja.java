@@ -1,33 +1,51 @@
 package torneomus.entity;
 
 import jakarta.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
-@Table(name = "parejas")
+@Table(name = "parejas", uniqueConstraints = @UniqueConstraint(columnNames = {"torneo_id", "nombre"}))
 public class Pareja {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(nullable = false, unique = true)
+    // El nombre es único dentro de cada torneo
+    @Column(nullable = false)
     private String nombre;
     
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "torneo_id")
+    private Torneo torneo;
+    
     @Column(nullable = false)
     private int derrotas = 0;
     
-    @ElementCollection
-    @CollectionTable(name = "pareja_rivales", joinColumns = @JoinColumn(name = "pareja_id"))
-    @Column(name = "rival_nombre")
-    private List<String> rivalesJugados = new ArrayList<>();
-    
     @Column(nullable = false)
     private boolean eliminada = false;
 
     @Column(nullable = false)
     private int descansos = 0;
+
+    // Clasificación precalculada: la mantiene RegistroResultados con cada resultado (ver V4__clasificacion.sql)
+    @Column(nullable = false)
+    private int victorias = 0;
+
+    // Partidos con resultado (sin contar descansos)
+    @Column(nullable = false)
+    private int jugados = 0;
+
+    // Rivales distintos contra los que ya ha jugado
+    @Column(nullable = false)
+    private int rivales = 0;
+
+    // Ronda en la que llegó la derrota que la eliminó (null mientras siga activa)
+    @Column(name = "ronda_eliminacion")
+    private Integer rondaEliminacion;
+    
+    // Control optimista de concurrencia: dos resultados simultáneos sobre la misma pareja no se pisan
+    @Version
+    private int version;
     
     // Constructores
     public Pareja() {}
@@ -36,6 +54,11 @@ public class Pareja {
         this.nombre = nombre;
     }
     
+    public Pareja(String nombre, Torneo torneo) {
+        this.nombre = nombre;
+        this.torneo = torneo;
+    }
+    
     // Getters y Setters
     public Long getId() {
         return id;
@@ -53,20 +76,20 @@ public class Pareja {
         this.nombre = nombre;
     }
     
-    public int getDerrotas() {
-        return derrotas;
+    public Torneo getTorneo() {
+        return torneo;
     }
     
-    public void setDerrotas(int derrotas) {
-        this.derrotas = derrotas;
+    public void setTorneo(Torneo torneo) {
+        this.torneo = torneo;
     }
     
-    public List<String> getRivalesJugados() {
-        return rivalesJugados;
+    public int getDerrotas() {
+        return derrotas;
     }
     
-    public void setRivalesJugados(List<String> rivalesJugados) {
-        this.rivalesJugados = rivalesJugados;
+    public void setDerrotas(int derrotas) {
+        this.derrotas = derrotas;
     }
     
     public boolean isEliminada() {
@@ -85,24 +108,78 @@ public class Pareja {
         this.descansos = descansos;
     }
     
+    public int getVictorias() {
+        return victorias;
+    }
+
+    public int getJugados() {
+        return jugados;
+    }
+
+    public int getRivales() {
+        return rivales;
+    }
+
+    public Integer getRondaEliminacion() {
+        return rondaEliminacion;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+    
     // Métodos de negocio
-    public void agregarDerrota() {
+    // Invariante: eliminada == (derrotas >= 2). Solo estos dos métodos cambian las derrotas en el flujo normal.
+    public void agregarDerrota(int ronda) {
         this.derrotas++;
-        if (this.derrotas >= 2) {
-            this.eliminada = true;
+        this.jugados++;
+        this.eliminada = this.derrotas >= 2;
+        if (this.eliminada && this.rondaEliminacion == null) {
+            this.rondaEliminacion = ronda;
         }
     }
     
-    public void agregarRival(String nombreRival) {
-        if (!rivalesJugados.contains(nombreRival)) {
-            rivalesJugados.add(nombreRival);
+    // Deshacer una derrota (corrección de resultado)
+    public void quitarDerrota() {
+        this.derrotas = Math.max(0, this.derrotas - 1);
+        this.jugados = Math.max(0, this.jugados - 1);
+        this.eliminada = this.derrotas >= 2;
+        if (!this.eliminada) {
+            this.rondaEliminacion = null;
         }
     }
-    
-    public boolean haJugadoContra(String nombreRival) {
-        return rivalesJugados.contains(nombreRival);
+
+    public void agregarVictoria() {
+        this.victorias++;
+        this.jugados++;
     }
-    
+
+    // Deshacer una victoria (corrección de resultado)
+    public void quitarVictoria() {
+        this.victorias = Math.max(0, this.victorias - 1);
+        this.jugados = Math.max(0, this.jugados - 1);
+    }
+
+    // Primer partido con resultado contra un rival nuevo
+    public void agregarRival() {
+        this.rivales++;
+    }
+
+    // Se anula el único partido con resultado contra ese rival
+    public void quitarRival() {
+        this.rivales = Math.max(0, this.rivales - 1);
+    }
+
+    // Volver a cero antes de reproducir el registro de resultados
+    public void reiniciarClasificacion() {
+        this.derrotas = 0;
+        this.eliminada = false;
+        this.victorias = 0;
+        this.jugados = 0;
+        this.rivales = 0;
+        this.rondaEliminacion = null;
+    }
+
     public boolean puedeJugar() {
         return !eliminada;
     }
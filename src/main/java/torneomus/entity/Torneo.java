@@ -0,0 +1,129 @@
+package torneomus.entity;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "torneos")
+public class Torneo {
+    
+    public enum Estado {
+        INSCRIPCION,
+        EN_CURSO,
+        FINALIZADO
+    }
+    
+    public static final String NOMBRE_POR_DEFECTO = "Torneo principal";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(length = 100)
+    private String nombre;
+    
+    // Ronda más alta generada (0 = sin rondas). La mantienen los generadores de rondas.
+    @Column(nullable = false)
+    private int rondaActual = 0;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado = Estado.INSCRIPCION;
+    
+    // Semilla de los sorteos del torneo: cada ronda saca la suya de esta y de su número (ver AleatorioRonda),
+    // así que cualquier emparejamiento se puede repetir fuera de la aplicación. Se fija al crear el torneo.
+    @Column(nullable = false, updatable = false)
+    private long semilla = ThreadLocalRandom.current().nextLong();
+    
+    // Versión de los datos del torneo (ver V6). Solo la suben las escrituras con TorneoRepository.incrementarVersion;
+    // guardar la entidad no la toca, y la copia cargada puede ir por detrás de la fila.
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long versionDatos;
+    
+    // Versión del historial de rondas (ver V7): la suben las correcciones y el reinicio con
+    // TorneoRepository.incrementarVersionHistorial
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long versionHistorial;
+    
+    // Constructores
+    public Torneo() {}
+    
+    public Torneo(String nombre) {
+        this.nombre = nombre;
+    }
+    
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getNombre() {
+        return nombre;
+    }
+    
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+    
+    public int getRondaActual() {
+        return rondaActual;
+    }
+    
+    public void setRondaActual(int rondaActual) {
+        this.rondaActual = rondaActual;
+    }
+    
+    public Estado getEstado() {
+        return estado;
+    }
+    
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+    
+    public long getSemilla() {
+        return semilla;
+    }
+    
+    public long getVersionDatos() {
+        return versionDatos;
+    }
+    
+    public long getVersionHistorial() {
+        return versionHistorial;
+    }
+    
+    // Métodos de negocio
+    public void avanzarARonda(int ronda) {
+        if (ronda > this.rondaActual) {
+            this.rondaActual = ronda;
+        }
+        if (this.estado == Estado.INSCRIPCION) {
+            this.estado = Estado.EN_CURSO;
+        }
+    }
+    
+    public void reiniciar() {
+        this.rondaActual = 0;
+        this.estado = Estado.INSCRIPCION;
+    }
+    
+    public boolean isFinalizado() {
+        return estado == Estado.FINALIZADO;
+    }
+    
+    @Override
+    public String toString() {
+        return "Torneo{" +
+                "id=" + id +
+                ", nombre='" + nombre + '\'' +
+                ", rondaActual=" + rondaActual +
+                ", estado=" + estado +
+                '}';
+    }
+}
@@ -1,34 +1,69 @@
 package torneomus.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import torneomus.entity.Enfrentamiento;
 import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface EnfrentamientoRepository extends JpaRepository<Enfrentamiento, Long> {
+public interface EnfrentamientoRepository extends JpaRepository<Enfrentamiento, Long>, EnfrentamientoRepositoryCustom {
     
-    List<Enfrentamiento> findByRondaOrderById(int ronda);
+    // Ronda más alta de toda la tabla: solo para crear el torneo por defecto en una base de datos anterior a los
+    // torneos múltiples, cuando todos los enfrentamientos son de ese único torneo (ver inicializarTorneo)
+    @Query("SELECT MAX(e.ronda) FROM Enfrentamiento e")
+    Integer findMaxRonda();
     
-    List<Enfrentamiento> findByRondaAndJugadoFalse(int ronda);
+    // Consultas acotadas a un torneo
+    // Vista de ronda y generación: enfrentamientos con sus parejas y ganador en una sola consulta
+    @EntityGraph(Enfrentamiento.GRAFO_PAREJAS)
+    List<Enfrentamiento> findByTorneoAndRondaOrderById(Torneo torneo, int ronda);
     
-    List<Enfrentamiento> findByJugadoFalse();
+    List<Enfrentamiento> findByTorneoAndRondaAndJugadoFalse(Torneo torneo, int ronda);
     
-    @Query("SELECT e FROM Enfrentamiento e WHERE e.pareja1 = ?1 OR e.pareja2 = ?1")
-    List<Enfrentamiento> findByPareja(Pareja pareja);
+    boolean existsByTorneoAndRondaAndJugadoFalse(Torneo torneo, int ronda);
     
-    @Query("SELECT e FROM Enfrentamiento e WHERE (e.pareja1 = ?1 AND e.pareja2 = ?2) OR (e.pareja1 = ?2 AND e.pareja2 = ?1)")
-    List<Enfrentamiento> findByParejas(Pareja pareja1, Pareja pareja2);
+    long countByTorneoAndRondaAndJugadoFalse(Torneo torneo, int ronda);
     
-    @Query("SELECT MAX(e.ronda) FROM Enfrentamiento e")
-    Integer findMaxRonda();
+    // Formulario y registro de resultado: un enfrentamiento con sus parejas
+    @EntityGraph(Enfrentamiento.GRAFO_PAREJAS)
+    Optional<Enfrentamiento> findConParejasById(Long id);
+    
+    @Query("SELECT e.pareja1.id, p2.id, e.ronda, e.jugado FROM Enfrentamiento e LEFT JOIN e.pareja2 p2 WHERE e.torneo = ?1")
+    List<Object[]> findResumenEnfrentamientos(Torneo torneo);
     
-    @Query("SELECT COUNT(e) FROM Enfrentamiento e WHERE (e.pareja1.id = ?1 OR e.pareja2.id = ?1) AND e.jugado = true AND e.ronda >= COALESCE((SELECT MAX(e2.ronda) FROM Enfrentamiento e2), 0) - 1")
-    int countEnfrentamientosRecientes(Long parejaId);
+    // Historial de un tramo de rondas en una sola consulta, con parejas y ganador ya cargados
+    @Query("SELECT e FROM Enfrentamiento e JOIN FETCH e.pareja1 LEFT JOIN FETCH e.pareja2 LEFT JOIN FETCH e.ganador " +
+           "WHERE e.torneo = ?1 AND e.ronda BETWEEN ?2 AND ?3 ORDER BY e.ronda, e.id")
+    List<Enfrentamiento> findHistorial(Torneo torneo, int rondaDesde, int rondaHasta);
+    
+    // Pares {pareja1Id, pareja2Id} de partidos ya jugados (sin descansos), en orden de ronda
+    @Query("SELECT e.pareja1.id, e.pareja2.id FROM Enfrentamiento e WHERE e.torneo = ?1 AND e.jugado = true AND e.pareja2 <> e.pareja1 ORDER BY e.ronda, e.id")
+    List<Object[]> findParesJugados(Torneo torneo);
+    
+    // ¿Hay otro enfrentamiento con resultado entre estas dos parejas? (clasificación: rivales distintos)
+    @Query("SELECT COUNT(e) > 0 FROM Enfrentamiento e WHERE e.id <> ?3 AND e.jugado = true AND " +
+            "((e.pareja1 = ?1 AND e.pareja2 = ?2) OR (e.pareja1 = ?2 AND e.pareja2 = ?1))")
+    boolean existsOtroJugadoEntre(Pareja pareja1, Pareja pareja2, Long excluirId);
+
+    // Rivales jugados solo por las parejas indicadas, en orden de ronda: {pareja1Id, nombre1, pareja2Id, nombre2}
+    @Query("SELECT p1.id, p1.nombre, p2.id, p2.nombre FROM Enfrentamiento e JOIN e.pareja1 p1 JOIN e.pareja2 p2 " +
+            "WHERE e.jugado = true AND p1 <> p2 AND (p1.id IN ?1 OR p2.id IN ?1) ORDER BY e.ronda, e.id")
+    List<Object[]> findRivalesDe(Collection<Long> parejaIds);
+
+    @Modifying
+    @Query("DELETE FROM Enfrentamiento e WHERE e.torneo = ?1")
+    int deleteByTorneo(Torneo torneo);
     
-    @Query("SELECT COUNT(e) FROM Enfrentamiento e WHERE (e.pareja1.id = ?1 OR e.pareja2.id = ?1) AND e.ronda = ?2")
-    int countEnfrentamientosEnRonda(Long parejaId, int ronda);
+    // Asignar al torneo indicado los enfrentamientos creados antes de existir los torneos múltiples
+    @Modifying
+    @Query("UPDATE Enfrentamiento e SET e.torneo = ?1 WHERE e.torneo IS NULL")
+    int asignarTorneoAEnfrentamientosSinTorneo(Torneo torneo);
 } 
\ No newline at end of file
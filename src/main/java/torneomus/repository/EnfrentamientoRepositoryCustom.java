@@ -0,0 +1,11 @@
+package torneomus.repository;
+
+import java.util.List;
+
+import torneomus.entity.Enfrentamiento;
+
+public interface EnfrentamientoRepositoryCustom {
+    
+    // Insertar enfrentamientos nuevos con JDBC batching (los ids IDENTITY impiden que Hibernate agrupe los INSERT)
+    void insertarEnLote(List<Enfrentamiento> enfrentamientos);
+}
@@ -0,0 +1,50 @@
+package torneomus.repository;
+
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import torneomus.entity.Enfrentamiento;
+
+// Implementación del fragmento EnfrentamientoRepositoryCustom. Usa la misma conexión que la transacción JPA en
+// curso, así que las consultas JPQL posteriores de la transacción ya ven las filas insertadas.
+// Con rewriteBatchedStatements=true el driver de MySQL envía cada lote como un único INSERT multi-fila.
+public class EnfrentamientoRepositoryCustomImpl implements EnfrentamientoRepositoryCustom {
+    
+    private static final int TAMANO_LOTE = 500;
+    
+    private static final String INSERT_ENFRENTAMIENTO =
+            "INSERT INTO enfrentamientos (pareja1_id, pareja2_id, ronda, ganador_id, jugado, torneo_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void insertarEnLote(List<Enfrentamiento> enfrentamientos) {
+        if (enfrentamientos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENFRENTAMIENTO, enfrentamientos, TAMANO_LOTE, (ps, e) -> {
+            ps.setLong(1, e.getPareja1().getId());
+            if (e.getPareja2() != null) {
+                ps.setLong(2, e.getPareja2().getId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setInt(3, e.getRonda());
+            if (e.getGanador() != null) {
+                ps.setLong(4, e.getGanador().getId());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setBoolean(5, e.isJugado());
+            if (e.getTorneo() != null) {
+                ps.setLong(6, e.getTorneo().getId());
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+        });
+    }
+}
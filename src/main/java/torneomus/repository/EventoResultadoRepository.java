@@ -0,0 +1,35 @@
+package torneomus.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import torneomus.entity.EventoResultado;
+import torneomus.entity.Torneo;
+
+@Repository
+public interface EventoResultadoRepository extends JpaRepository<EventoResultado, Long> {
+
+    // Registro de un torneo en orden de llegada, solo lo que hace falta para reproducirlo: {tipo, ganadorId, perdedorId, ronda}
+    @Query("SELECT e.tipo, e.ganador.id, p.id, enf.ronda FROM EventoResultado e JOIN e.enfrentamiento enf LEFT JOIN e.perdedor p " +
+            "WHERE e.torneo = ?1 ORDER BY e.id")
+    List<Object[]> findRegistro(Torneo torneo);
+
+    // Pasar al registro los resultados de enfrentamientos que aún no tienen ninguno (datos anteriores al registro)
+    @Modifying
+    @Query(value = "INSERT INTO eventos_resultado (torneo_id, enfrentamiento_id, tipo, ganador_id, perdedor_id, registrado) " +
+            "SELECT e.torneo_id, e.id, 'RESULTADO', e.ganador_id, " +
+            "CASE WHEN e.ganador_id = e.pareja1_id THEN e.pareja2_id ELSE e.pareja1_id END, CURRENT_TIMESTAMP " +
+            "FROM enfrentamientos e WHERE e.torneo_id = ?1 AND e.jugado = TRUE AND e.ganador_id IS NOT NULL " +
+            "AND (e.pareja2_id IS NULL OR e.pareja2_id <> e.pareja1_id) " +
+            "AND NOT EXISTS (SELECT 1 FROM eventos_resultado r WHERE r.enfrentamiento_id = e.id) " +
+            "ORDER BY e.ronda, e.id", nativeQuery = true)
+    int anotarResultadosSinRegistro(Long torneoId);
+
+    @Modifying
+    @Query("DELETE FROM EventoResultado e WHERE e.torneo = ?1")
+    int deleteByTorneo(Torneo torneo);
+}
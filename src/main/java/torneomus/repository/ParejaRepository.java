@@ -1,37 +1,54 @@
 package torneomus.repository;
 
 import java.util.List;
-import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
 
 @Repository
-public interface ParejaRepository extends JpaRepository<Pareja, Long> {
+public interface ParejaRepository extends JpaRepository<Pareja, Long>, ParejaRepositoryCustom {
     
-    Optional<Pareja> findByNombre(String nombre);
+    // Todas las consultas van acotadas a un torneo
+    List<Pareja> findByTorneo(Torneo torneo);
     
-    List<Pareja> findByEliminadaFalse();
+    long countByTorneo(Torneo torneo);
     
-    List<Pareja> findByEliminadaTrue();
+    boolean existsByTorneoAndNombre(Torneo torneo, String nombre);
     
-    @Query("SELECT p FROM Pareja p WHERE p.derrotas < 2")
-    List<Pareja> findParejasActivas();
+    // Nombres ya inscritos en el torneo (comprobación de una importación en una sola consulta; la comparación sin
+    // mayúsculas ni acentos se hace en memoria para no depender de la intercalación de la columna)
+    @Query("SELECT p.nombre FROM Pareja p WHERE p.torneo = ?1")
+    List<String> findNombresInscritos(Torneo torneo);
     
-    @Query("SELECT COUNT(p) FROM Pareja p WHERE p.eliminada = false")
-    long countParejasActivas();
+    @Query("SELECT COUNT(p) FROM Pareja p WHERE p.torneo = ?1 AND p.eliminada = false")
+    long countParejasActivas(Torneo torneo);
     
-    @Query("SELECT DISTINCT p FROM Pareja p LEFT JOIN FETCH p.rivalesJugados WHERE p.eliminada = false")
-    List<Pareja> findParejasActivasWithRivales();
+    @Query("SELECT p FROM Pareja p WHERE p.torneo = ?1 AND p.eliminada = false")
+    List<Pareja> findParejasActivas(Torneo torneo);
     
-    @Query("SELECT DISTINCT p FROM Pareja p LEFT JOIN FETCH p.rivalesJugados WHERE p.eliminada = true")
-    List<Pareja> findParejasEliminadasWithRivales();
+    @Query("SELECT p FROM Pareja p WHERE p.torneo = ?1 AND p.eliminada = true")
+    List<Pareja> findParejasEliminadas(Torneo torneo);
     
-    @Query("SELECT DISTINCT p FROM Pareja p LEFT JOIN FETCH p.rivalesJugados")
-    List<Pareja> findAllWithRivales();
+    // Clasificación precalculada, en el orden del índice idx_parejas_clasificacion: primero las activas (menos
+    // derrotas, más victorias) y después las eliminadas (las que cayeron más tarde primero)
+    @Query(value = "SELECT p FROM Pareja p WHERE p.torneo = ?1 " +
+            "ORDER BY p.eliminada, p.derrotas, p.rondaEliminacion DESC, p.victorias DESC, p.id",
+            countQuery = "SELECT COUNT(p) FROM Pareja p WHERE p.torneo = ?1")
+    Page<Pareja> findClasificacion(Torneo torneo, Pageable pageable);
     
-    boolean existsByNombre(String nombre);
+    @Modifying
+    @Query("DELETE FROM Pareja p WHERE p.torneo = ?1")
+    int deleteByTorneo(Torneo torneo);
+    
+    // Asignar al torneo indicado las parejas creadas antes de existir los torneos múltiples
+    @Modifying
+    @Query("UPDATE Pareja p SET p.torneo = ?1 WHERE p.torneo IS NULL")
+    int asignarTorneoAParejasSinTorneo(Torneo torneo);
 } 
\ No newline at end of file
@@ -0,0 +1,11 @@
+package torneomus.repository;
+
+import java.util.List;
+
+import torneomus.entity.Pareja;
+
+public interface ParejaRepositoryCustom {
+    
+    // Insertar parejas nuevas con JDBC batching (los ids IDENTITY impiden que Hibernate agrupe los INSERT)
+    void insertarEnLote(List<Pareja> parejas);
+}
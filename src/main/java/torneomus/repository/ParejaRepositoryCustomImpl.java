@@ -0,0 +1,50 @@
+package torneomus.repository;
+
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import torneomus.entity.Pareja;
+
+// Implementación del fragmento ParejaRepositoryCustom (mismo esquema que EnfrentamientoRepositoryCustomImpl):
+// usa la conexión de la transacción JPA en curso y, con rewriteBatchedStatements=true, cada lote viaja como
+// un único INSERT multi-fila. Las parejas insertadas así no quedan en el contexto de persistencia ni reciben id.
+public class ParejaRepositoryCustomImpl implements ParejaRepositoryCustom {
+    
+    private static final int TAMANO_LOTE = 500;
+    
+    private static final String INSERT_PAREJA =
+            "INSERT INTO parejas (nombre, torneo_id, derrotas, eliminada, descansos, victorias, jugados, rivales, ronda_eliminacion, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void insertarEnLote(List<Pareja> parejas) {
+        if (parejas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PAREJA, parejas, TAMANO_LOTE, (ps, p) -> {
+            ps.setString(1, p.getNombre());
+            if (p.getTorneo() != null) {
+                ps.setLong(2, p.getTorneo().getId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setInt(3, p.getDerrotas());
+            ps.setBoolean(4, p.isEliminada());
+            ps.setInt(5, p.getDescansos());
+            ps.setInt(6, p.getVictorias());
+            ps.setInt(7, p.getJugados());
+            ps.setInt(8, p.getRivales());
+            if (p.getRondaEliminacion() != null) {
+                ps.setInt(9, p.getRondaEliminacion());
+            } else {
+                ps.setNull(9, Types.INTEGER);
+            }
+        });
+    }
+}
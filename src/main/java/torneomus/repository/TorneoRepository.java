@@ -0,0 +1,49 @@
+package torneomus.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import torneomus.entity.Torneo;
+
+@Repository
+public interface TorneoRepository extends JpaRepository<Torneo, Long>, TorneoRepositoryCustom {
+    
+    Optional<Torneo> findFirstByOrderByIdAsc();
+    
+    List<Torneo> findAllByOrderByIdAsc();
+    
+    // Versión de los datos del torneo leída de la fila: consulta escalar por clave primaria, que no devuelve
+    // la copia del contexto de persistencia
+    @Query("SELECT t.versionDatos FROM Torneo t WHERE t.id = ?1")
+    Optional<Long> findVersionDatos(Long torneoId);
+    
+    // Pares (id, versión de los datos) de los torneos indicados
+    @Query("SELECT t.id, t.versionDatos FROM Torneo t WHERE t.id IN ?1")
+    List<Object[]> findVersionesDatos(Collection<Long> torneoIds);
+    
+    // Subir la versión de los datos del torneo en la transacción en curso (la fila queda bloqueada hasta el commit,
+    // por eso se llama justo antes de confirmar: ver CacheEstadoTorneo.invalidar)
+    @Modifying
+    @Query("UPDATE Torneo t SET t.versionDatos = t.versionDatos + 1 WHERE t.id = ?1")
+    int incrementarVersion(Long torneoId);
+    
+    // Subir la versión de todos los torneos (la foto de cada uno incluye la lista de torneos)
+    @Modifying
+    @Query("UPDATE Torneo t SET t.versionDatos = t.versionDatos + 1")
+    int incrementarVersionTodos();
+    
+    // Versión del historial de rondas del torneo (consulta escalar por clave primaria)
+    @Query("SELECT t.versionHistorial FROM Torneo t WHERE t.id = ?1")
+    Optional<Long> findVersionHistorial(Long torneoId);
+    
+    // Subir la versión del historial de rondas en la transacción en curso
+    @Modifying
+    @Query("UPDATE Torneo t SET t.versionHistorial = t.versionHistorial + 1 WHERE t.id = ?1")
+    int incrementarVersionHistorial(Long torneoId);
+}
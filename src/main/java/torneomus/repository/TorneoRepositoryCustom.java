@@ -0,0 +1,9 @@
+package torneomus.repository;
+
+import torneomus.entity.Torneo;
+
+public interface TorneoRepositoryCustom {
+    
+    // Bloquear la fila del torneo (SELECT ... FOR UPDATE) hasta el final de la transacción en curso
+    Torneo bloquearTorneo(Long torneoId);
+}
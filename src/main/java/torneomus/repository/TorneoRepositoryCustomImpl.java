@@ -0,0 +1,27 @@
+package torneomus.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import torneomus.entity.Torneo;
+
+// Implementación del fragmento TorneoRepositoryCustom. El bloqueo pesimista se traduce en SELECT ... FOR UPDATE
+// tanto en MySQL como en H2, así que sirve de cerrojo entre varias instancias de la aplicación.
+// Se usa refresh y no una consulta con bloqueo: con open-in-view el torneo suele estar ya en el contexto de
+// persistencia (leído antes en la misma petición) y una consulta devolvería esa copia sin releer sus datos.
+public class TorneoRepositoryCustomImpl implements TorneoRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Torneo bloquearTorneo(Long torneoId) {
+        Torneo torneo = entityManager.find(Torneo.class, torneoId);
+        if (torneo == null) {
+            throw new RuntimeException("Torneo no encontrado");
+        }
+        entityManager.refresh(torneo, LockModeType.PESSIMISTIC_WRITE);
+        return torneo;
+    }
+}
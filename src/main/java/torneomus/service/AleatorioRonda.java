@@ -0,0 +1,36 @@
+package torneomus.service;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+// Fuente de azar de la generación de una ronda. Cada generación crea la suya a partir de la semilla del torneo y del
+// número de ronda, y no la comparte con ningún otro hilo. Con la misma semilla, la misma ronda y las mismas parejas
+// e historial el emparejamiento sale idéntico, también fuera de la aplicación (p. ej. en los benchmarks).
+public final class AleatorioRonda {
+
+    private AleatorioRonda() {}
+
+    // La ronda entra en la semilla mezclada (mezclar64), no sumada: con semillaTorneo + ronda, (S, r + 1) y (S + 1, r)
+    // daban el mismo generador. No se multiplica por 0x9E3779B97F4A7C15L porque es el incremento interno de
+    // SplittableRandom: con semilla de torneo 0 la ronda r repetiría la secuencia de la ronda 0 desplazada r pasos.
+    public static SplittableRandom para(long semillaTorneo, int ronda) {
+        return new SplittableRandom(semillaTorneo ^ mezclar64(ronda));
+    }
+
+    // Función de mezcla de 64 bits (variante 13 de Stafford, la de SplittableRandom): biyectiva, así que dos rondas
+    // del mismo torneo nunca comparten semilla, y números de ronda consecutivos dan valores sin relación entre sí
+    private static long mezclar64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Mezcla de Fisher-Yates (Collections.shuffle solo acepta RandomGenerator desde Java 21)
+    public static <T> void mezclar(List<T> lista, RandomGenerator random) {
+        for (int i = lista.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            lista.set(j, lista.set(i, lista.get(j)));
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package torneomus.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Emparejamiento de peso máximo en grafos generales (algoritmo blossom de Edmonds con variables duales),
+// O(n^3). Basado en la formulación de Galil ("Efficient algorithms for finding maximum matching in graphs", 1986).
+// Con maxCardinalidad=true devuelve, entre los emparejamientos de cardinalidad máxima, el de mayor peso.
+// Los pesos son enteros; internamente se duplican para que las variables duales permanezcan enteras.
+final class AlgoritmoBlossom {
+
+    private final int nVertices;
+    private final int nAristas;
+    private final int[] extremo;
+    private final long[] peso;
+    private final int[][] vecinos;
+    private final boolean maxCardinalidad;
+
+    private final int[] pareja;
+    private final int[] etiqueta;
+    private final int[] extremoEtiqueta;
+    private final int[] enBlossom;
+    private final int[] padreBlossom;
+    private final int[][] hijosBlossom;
+    private final int[] baseBlossom;
+    private final int[][] extremosBlossom;
+    private final int[] mejorArista;
+    private final int[][] mejoresAristasBlossom;
+    private final ArrayDeque<Integer> blossomsLibres = new ArrayDeque<>();
+    private final long[] dual;
+    private final boolean[] aristaPermitida;
+    private final ArrayDeque<Integer> cola = new ArrayDeque<>();
+
+    private AlgoritmoBlossom(int nVertices, int[] origen, int[] destino, long[] pesos, boolean maxCardinalidad) {
+        this.nVertices = nVertices;
+        this.nAristas = origen.length;
+        this.maxCardinalidad = maxCardinalidad;
+        this.extremo = new int[2 * nAristas];
+        this.peso = new long[nAristas];
+
+        long pesoMaximo = 0;
+        int[] grado = new int[nVertices];
+        for (int k = 0; k < nAristas; k++) {
+            extremo[2 * k] = origen[k];
+            extremo[2 * k + 1] = destino[k];
+            peso[k] = 2 * pesos[k];
+            pesoMaximo = Math.max(pesoMaximo, peso[k]);
+            grado[origen[k]]++;
+            grado[destino[k]]++;
+        }
+        this.vecinos = new int[nVertices][];
+        for (int v = 0; v < nVertices; v++) {
+            vecinos[v] = new int[grado[v]];
+        }
+        int[] llenos = new int[nVertices];
+        for (int k = 0; k < nAristas; k++) {
+            vecinos[origen[k]][llenos[origen[k]]++] = 2 * k + 1;
+            vecinos[destino[k]][llenos[destino[k]]++] = 2 * k;
+        }
+
+        this.pareja = new int[nVertices];
+        Arrays.fill(pareja, -1);
+        this.etiqueta = new int[2 * nVertices];
+        this.extremoEtiqueta = new int[2 * nVertices];
+        Arrays.fill(extremoEtiqueta, -1);
+        this.enBlossom = new int[nVertices];
+        this.padreBlossom = new int[2 * nVertices];
+        Arrays.fill(padreBlossom, -1);
+        this.hijosBlossom = new int[2 * nVertices][];
+        this.baseBlossom = new int[2 * nVertices];
+        Arrays.fill(baseBlossom, -1);
+        this.extremosBlossom = new int[2 * nVertices][];
+        this.mejorArista = new int[2 * nVertices];
+        Arrays.fill(mejorArista, -1);
+        this.mejoresAristasBlossom = new int[2 * nVertices][];
+        this.dual = new long[2 * nVertices];
+        for (int v = 0; v < nVertices; v++) {
+            enBlossom[v] = v;
+            baseBlossom[v] = v;
+            dual[v] = pesoMaximo;
+        }
+        for (int b = nVertices; b < 2 * nVertices; b++) {
+            blossomsLibres.push(b);
+        }
+        this.aristaPermitida = new boolean[nAristas];
+    }
+
+    // Devuelve para cada vértice el vértice con el que queda emparejado, o -1 si queda libre
+    static int[] emparejamientoPesoMaximo(int nVertices, int[] origen, int[] destino, long[] pesos, boolean maxCardinalidad) {
+        if (origen.length != destino.length || origen.length != pesos.length) {
+            throw new IllegalArgumentException("Listas de aristas de distinta longitud");
+        }
+        AlgoritmoBlossom algoritmo = new AlgoritmoBlossom(nVertices, origen, destino, pesos, maxCardinalidad);
+        if (algoritmo.nAristas > 0) {
+            algoritmo.resolver();
+        }
+        int[] resultado = new int[nVertices];
+        for (int v = 0; v < nVertices; v++) {
+            resultado[v] = algoritmo.pareja[v] >= 0 ? algoritmo.extremo[algoritmo.pareja[v]] : -1;
+        }
+        return resultado;
+    }
+
+    private long holgura(int k) {
+        return dual[extremo[2 * k]] + dual[extremo[2 * k + 1]] - 2 * peso[k];
+    }
+
+    private List<Integer> hojas(int b) {
+        List<Integer> resultado = new ArrayList<>();
+        recogerHojas(b, resultado);
+        return resultado;
+    }
+
+    private void recogerHojas(int b, List<Integer> resultado) {
+        if (b < nVertices) {
+            resultado.add(b);
+            return;
+        }
+        for (int hijo : hijosBlossom[b]) {
+            recogerHojas(hijo, resultado);
+        }
+    }
+
+    // Índice circular para recorrer los hijos de un blossom con índices negativos
+    private static int circular(int[] lista, int j) {
+        int n = lista.length;
+        return lista[((j % n) + n) % n];
+    }
+
+    private static int indiceDe(int[] lista, int valor) {
+        for (int i = 0; i < lista.length; i++) {
+            if (lista[i] == valor) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Hijo no encontrado en el blossom");
+    }
+
+    // Etiquetar w (t=1: S, t=2: T) alcanzado a través del extremo p
+    private void asignarEtiqueta(int w, int t, int p) {
+        int b = enBlossom[w];
+        etiqueta[w] = etiqueta[b] = t;
+        extremoEtiqueta[w] = extremoEtiqueta[b] = p;
+        mejorArista[w] = mejorArista[b] = -1;
+        if (t == 1) {
+            cola.addAll(hojas(b));
+        } else if (t == 2) {
+            int base = baseBlossom[b];
+            asignarEtiqueta(extremo[pareja[base]], 1, pareja[base] ^ 1);
+        }
+    }
+
+    // Recorrer el árbol desde v y w buscando un blossom nuevo; devuelve su base o -1 si hay camino aumentante
+    private int buscarBlossom(int v, int w) {
+        List<Integer> camino = new ArrayList<>();
+        int base = -1;
+        while (v != -1 || w != -1) {
+            int b = enBlossom[v];
+            if ((etiqueta[b] & 4) != 0) {
+                base = baseBlossom[b];
+                break;
+            }
+            camino.add(b);
+            etiqueta[b] = 5;
+            if (extremoEtiqueta[b] == -1) {
+                v = -1;
+            } else {
+                v = extremo[extremoEtiqueta[b]];
+                b = enBlossom[v];
+                v = extremo[extremoEtiqueta[b]];
+            }
+            if (w != -1) {
+                int tmp = v;
+                v = w;
+                w = tmp;
+            }
+        }
+        for (int b : camino) {
+            etiqueta[b] = 1;
+        }
+        return base;
+    }
+
+    private void crearBlossom(int base, int k) {
+        int v = extremo[2 * k];
+        int w = extremo[2 * k + 1];
+        int bb = enBlossom[base];
+        int bv = enBlossom[v];
+        int bw = enBlossom[w];
+        int b = blossomsLibres.pop();
+        baseBlossom[b] = base;
+        padreBlossom[b] = -1;
+        padreBlossom[bb] = b;
+
+        List<Integer> camino = new ArrayList<>();
+        List<Integer> extremos = new ArrayList<>();
+        while (bv != bb) {
+            padreBlossom[bv] = b;
+            camino.add(bv);
+            extremos.add(extremoEtiqueta[bv]);
+            v = extremo[extremoEtiqueta[bv]];
+            bv = enBlossom[v];
+        }
+        camino.add(bb);
+        Collections.reverse(camino);
+        Collections.reverse(extremos);
+        extremos.add(2 * k);
+        while (bw != bb) {
+            padreBlossom[bw] = b;
+            camino.add(bw);
+            extremos.add(extremoEtiqueta[bw] ^ 1);
+            w = extremo[extremoEtiqueta[bw]];
+            bw = enBlossom[w];
+        }
+        hijosBlossom[b] = camino.stream().mapToInt(Integer::intValue).toArray();
+        extremosBlossom[b] = extremos.stream().mapToInt(Integer::intValue).toArray();
+
+        etiqueta[b] = 1;
+        extremoEtiqueta[b] = extremoEtiqueta[bb];
+        dual[b] = 0;
+        for (int hoja : hojas(b)) {
+            if (etiqueta[enBlossom[hoja]] == 2) {
+                cola.add(hoja);
+            }
+            enBlossom[hoja] = b;
+        }
+
+        int[] mejorHacia = new int[2 * nVertices];
+        Arrays.fill(mejorHacia, -1);
+        for (int hijo : hijosBlossom[b]) {
+            List<int[]> listas = new ArrayList<>();
+            if (mejoresAristasBlossom[hijo] == null) {
+                for (int hoja : hojas(hijo)) {
+                    int[] aristas = new int[vecinos[hoja].length];
+                    for (int i = 0; i < aristas.length; i++) {
+                        aristas[i] = vecinos[hoja][i] / 2;
+                    }
+                    listas.add(aristas);
+                }
+            } else {
+                listas.add(mejoresAristasBlossom[hijo]);
+            }
+            for (int[] lista : listas) {
+                for (int arista : lista) {
+                    int j = extremo[2 * arista + 1];
+                    if (enBlossom[j] == b) {
+                        j = extremo[2 * arista];
+                    }
+                    int bj = enBlossom[j];
+                    if (bj != b && etiqueta[bj] == 1
+                            && (mejorHacia[bj] == -1 || holgura(arista) < holgura(mejorHacia[bj]))) {
+                        mejorHacia[bj] = arista;
+                    }
+                }
+            }
+            mejoresAristasBlossom[hijo] = null;
+            mejorArista[hijo] = -1;
+        }
+        mejoresAristasBlossom[b] = Arrays.stream(mejorHacia).filter(a -> a != -1).toArray();
+        mejorArista[b] = -1;
+        for (int arista : mejoresAristasBlossom[b]) {
+            if (mejorArista[b] == -1 || holgura(arista) < holgura(mejorArista[b])) {
+                mejorArista[b] = arista;
+            }
+        }
+    }
+
+    private void expandirBlossom(int b, boolean finDeEtapa) {
+        for (int s : hijosBlossom[b]) {
+            padreBlossom[s] = -1;
+            if (s < nVertices) {
+                enBlossom[s] = s;
+            } else if (finDeEtapa && dual[s] == 0) {
+                expandirBlossom(s, finDeEtapa);
+            } else {
+                for (int hoja : hojas(s)) {
+                    enBlossom[hoja] = s;
+                }
+            }
+        }
+
+        if (!finDeEtapa && etiqueta[b] == 2) {
+            int[] hijos = hijosBlossom[b];
+            int[] extremos = extremosBlossom[b];
+            int hijoEntrada = enBlossom[extremo[extremoEtiqueta[b] ^ 1]];
+            int j = indiceDe(hijos, hijoEntrada);
+            int paso;
+            int truco;
+            if ((j & 1) != 0) {
+                j -= hijos.length;
+                paso = 1;
+                truco = 0;
+            } else {
+                paso = -1;
+                truco = 1;
+            }
+            int p = extremoEtiqueta[b];
+            while (j != 0) {
+                etiqueta[extremo[p ^ 1]] = 0;
+                etiqueta[extremo[circular(extremos, j - truco) ^ truco ^ 1]] = 0;
+                asignarEtiqueta(extremo[p ^ 1], 2, p);
+                aristaPermitida[circular(extremos, j - truco) / 2] = true;
+                j += paso;
+                p = circular(extremos, j - truco) ^ truco;
+                aristaPermitida[p / 2] = true;
+                j += paso;
+            }
+            int bv = circular(hijos, j);
+            etiqueta[extremo[p ^ 1]] = etiqueta[bv] = 2;
+            extremoEtiqueta[extremo[p ^ 1]] = extremoEtiqueta[bv] = p;
+            mejorArista[bv] = -1;
+            j += paso;
+            while (circular(hijos, j) != hijoEntrada) {
+                bv = circular(hijos, j);
+                if (etiqueta[bv] == 1) {
+                    j += paso;
+                    continue;
+                }
+                int etiquetado = -1;
+                for (int hoja : hojas(bv)) {
+                    if (etiqueta[hoja] != 0) {
+                        etiquetado = hoja;
+                        break;
+                    }
+                }
+                if (etiquetado != -1) {
+                    etiqueta[etiquetado] = 0;
+                    etiqueta[extremo[pareja[baseBlossom[bv]]]] = 0;
+                    asignarEtiqueta(etiquetado, 2, extremoEtiqueta[etiquetado]);
+                }
+                j += paso;
+            }
+        }
+
+        etiqueta[b] = -1;
+        extremoEtiqueta[b] = -1;
+        hijosBlossom[b] = null;
+        extremosBlossom[b] = null;
+        baseBlossom[b] = -1;
+        mejoresAristasBlossom[b] = null;
+        mejorArista[b] = -1;
+        blossomsLibres.push(b);
+    }
+
+    // Intercambiar aristas emparejadas/libres dentro del blossom b para que v pase a ser su base
+    private void aumentarBlossom(int b, int v) {
+        int t = v;
+        while (padreBlossom[t] != b) {
+            t = padreBlossom[t];
+        }
+        if (t >= nVertices) {
+            aumentarBlossom(t, v);
+        }
+        int[] hijos = hijosBlossom[b];
+        int[] extremos = extremosBlossom[b];
+        int i = indiceDe(hijos, t);
+        int j = i;
+        int paso;
+        int truco;
+        if ((i & 1) != 0) {
+            j -= hijos.length;
+            paso = 1;
+            truco = 0;
+        } else {
+            paso = -1;
+            truco = 1;
+        }
+        while (j != 0) {
+            j += paso;
+            t = circular(hijos, j);
+            int p = circular(extremos, j - truco) ^ truco;
+            if (t >= nVertices) {
+                aumentarBlossom(t, extremo[p]);
+            }
+            j += paso;
+            t = circular(hijos, j);
+            if (t >= nVertices) {
+                aumentarBlossom(t, extremo[p ^ 1]);
+            }
+            pareja[extremo[p]] = p ^ 1;
+            pareja[extremo[p ^ 1]] = p;
+        }
+        hijosBlossom[b] = rotar(hijos, i);
+        extremosBlossom[b] = rotar(extremos, i);
+        baseBlossom[b] = baseBlossom[hijosBlossom[b][0]];
+    }
+
+    private static int[] rotar(int[] lista, int desde) {
+        int[] rotada = new int[lista.length];
+        for (int i = 0; i < lista.length; i++) {
+            rotada[i] = lista[(desde + i) % lista.length];
+        }
+        return rotada;
+    }
+
+    private void aumentarEmparejamiento(int k) {
+        int[][] inicios = {{extremo[2 * k], 2 * k + 1}, {extremo[2 * k + 1], 2 * k}};
+        for (int[] inicio : inicios) {
+            int s = inicio[0];
+            int p = inicio[1];
+            while (true) {
+                int bs = enBlossom[s];
+                if (bs >= nVertices) {
+                    aumentarBlossom(bs, s);
+                }
+                pareja[s] = p;
+                if (extremoEtiqueta[bs] == -1) {
+                    break;
+                }
+                int t = extremo[extremoEtiqueta[bs]];
+                int bt = enBlossom[t];
+                s = extremo[extremoEtiqueta[bt]];
+                int j = extremo[extremoEtiqueta[bt] ^ 1];
+                if (bt >= nVertices) {
+                    aumentarBlossom(bt, j);
+                }
+                pareja[j] = extremoEtiqueta[bt];
+                p = extremoEtiqueta[bt] ^ 1;
+            }
+        }
+    }
+
+    private void resolver() {
+        for (int etapa = 0; etapa < nVertices; etapa++) {
+            Arrays.fill(etiqueta, 0);
+            Arrays.fill(mejorArista, -1);
+            for (int b = nVertices; b < 2 * nVertices; b++) {
+                mejoresAristasBlossom[b] = null;
+            }
+            Arrays.fill(aristaPermitida, false);
+            cola.clear();
+
+            for (int v = 0; v < nVertices; v++) {
+                if (pareja[v] == -1 && etiqueta[enBlossom[v]] == 0) {
+                    asignarEtiqueta(v, 1, -1);
+                }
+            }
+
+            boolean aumentado = false;
+            while (true) {
+                while (!cola.isEmpty() && !aumentado) {
+                    int v = cola.pollLast();
+                    for (int p : vecinos[v]) {
+                        int k = p / 2;
+                        int w = extremo[p];
+                        if (enBlossom[v] == enBlossom[w]) {
+                            continue;
+                        }
+                        long holguraK = 0;
+                        if (!aristaPermitida[k]) {
+                            holguraK = holgura(k);
+                            if (holguraK <= 0) {
+                                aristaPermitida[k] = true;
+                            }
+                        }
+                        if (aristaPermitida[k]) {
+                            if (etiqueta[enBlossom[w]] == 0) {
+                                asignarEtiqueta(w, 2, p ^ 1);
+                            } else if (etiqueta[enBlossom[w]] == 1) {
+                                int base = buscarBlossom(v, w);
+                                if (base >= 0) {
+                                    crearBlossom(base, k);
+                                } else {
+                                    aumentarEmparejamiento(k);
+                                    aumentado = true;
+                                    break;
+                                }
+                            } else if (etiqueta[w] == 0) {
+                                etiqueta[w] = 2;
+                                extremoEtiqueta[w] = p ^ 1;
+                            }
+                        } else if (etiqueta[enBlossom[w]] == 1) {
+                            int b = enBlossom[v];
+                            if (mejorArista[b] == -1 || holguraK < holgura(mejorArista[b])) {
+                                mejorArista[b] = k;
+                            }
+                        } else if (etiqueta[w] == 0) {
+                            if (mejorArista[w] == -1 || holguraK < holgura(mejorArista[w])) {
+                                mejorArista[w] = k;
+                            }
+                        }
+                    }
+                }
+                if (aumentado) {
+                    break;
+                }
+
+                // Calcular el ajuste de las variables duales
+                int tipoDelta = -1;
+                long delta = 0;
+                int aristaDelta = -1;
+                int blossomDelta = -1;
+                if (!maxCardinalidad) {
+                    tipoDelta = 1;
+                    delta = Long.MAX_VALUE;
+                    for (int v = 0; v < nVertices; v++) {
+                        delta = Math.min(delta, dual[v]);
+                    }
+                }
+                for (int v = 0; v < nVertices; v++) {
+                    if (etiqueta[enBlossom[v]] == 0 && mejorArista[v] != -1) {
+                        long d = holgura(mejorArista[v]);
+                        if (tipoDelta == -1 || d < delta) {
+                            delta = d;
+                            tipoDelta = 2;
+                            aristaDelta = mejorArista[v];
+                        }
+                    }
+                }
+                for (int b = 0; b < 2 * nVertices; b++) {
+                    if (padreBlossom[b] == -1 && etiqueta[b] == 1 && mejorArista[b] != -1) {
+                        long d = holgura(mejorArista[b]) / 2;
+                        if (tipoDelta == -1 || d < delta) {
+                            delta = d;
+                            tipoDelta = 3;
+                            aristaDelta = mejorArista[b];
+                        }
+                    }
+                }
+                for (int b = nVertices; b < 2 * nVertices; b++) {
+                    if (baseBlossom[b] >= 0 && padreBlossom[b] == -1 && etiqueta[b] == 2
+                            && (tipoDelta == -1 || dual[b] < delta)) {
+                        delta = dual[b];
+                        tipoDelta = 4;
+                        blossomDelta = b;
+                    }
+                }
+                if (tipoDelta == -1) {
+                    // Sin más mejoras posibles en cardinalidad máxima: terminar con el ajuste mínimo
+                    tipoDelta = 1;
+                    delta = Long.MAX_VALUE;
+                    for (int v = 0; v < nVertices; v++) {
+                        delta = Math.min(delta, dual[v]);
+                    }
+                    delta = Math.max(0, delta);
+                }
+
+                for (int v = 0; v < nVertices; v++) {
+                    if (etiqueta[enBlossom[v]] == 1) {
+                        dual[v] -= delta;
+                    } else if (etiqueta[enBlossom[v]] == 2) {
+                        dual[v] += delta;
+                    }
+                }
+                for (int b = nVertices; b < 2 * nVertices; b++) {
+                    if (baseBlossom[b] >= 0 && padreBlossom[b] == -1) {
+                        if (etiqueta[b] == 1) {
+                            dual[b] += delta;
+                        } else if (etiqueta[b] == 2) {
+                            dual[b] -= delta;
+                        }
+                    }
+                }
+
+                if (tipoDelta == 1) {
+                    break;
+                } else if (tipoDelta == 2) {
+                    aristaPermitida[aristaDelta] = true;
+                    int i = extremo[2 * aristaDelta];
+                    if (etiqueta[enBlossom[i]] == 0) {
+                        i = extremo[2 * aristaDelta + 1];
+                    }
+                    cola.add(i);
+                } else if (tipoDelta == 3) {
+                    aristaPermitida[aristaDelta] = true;
+                    cola.add(extremo[2 * aristaDelta]);
+                } else {
+                    expandirBlossom(blossomDelta, false);
+                }
+            }
+
+            if (!aumentado) {
+                break;
+            }
+
+            for (int b = nVertices; b < 2 * nVertices; b++) {
+                if (padreBlossom[b] == -1 && baseBlossom[b] >= 0 && etiqueta[b] == 1 && dual[b] == 0) {
+                    expandirBlossom(b, true);
+                }
+            }
+        }
+    }
+}
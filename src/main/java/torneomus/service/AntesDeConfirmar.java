@@ -0,0 +1,42 @@
+package torneomus.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Escrituras que se dejan para el final de la transacción en curso, justo antes del commit, una sola vez por clave.
+// Es lo que hacen las subidas de versión de los torneos: la fila del torneo queda bloqueada solo mientras se confirma
+// y no durante toda la transacción, así que dos resultados de partidos distintos no se esperan el uno al otro.
+// Se ejecutan antes que cualquier otra sincronización (por ejemplo, la que lee la versión para el evento SSE).
+final class AntesDeConfirmar {
+
+    private AntesDeConfirmar() {}
+
+    // Ejecutar la acción antes de confirmar la transacción en curso, o ya mismo si no hay ninguna
+    static void registrar(Object clave, Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(clave)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(clave, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                accion.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(clave);
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package torneomus.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import torneomus.config.EnrutadorFuenteDatos;
+import torneomus.repository.TorneoRepository;
+
+// Cache de la foto EstadoTorneo, una por torneo, en cada instancia de la aplicación. Cada foto lleva la versión
+// de los datos (torneos.version_datos) con la que se construyó, y cada lectura la compara con la guardada en la
+// base de datos: un acierto cuesta una búsqueda por clave primaria en la primaria en lugar de reconstruir la foto.
+// Como la versión la suben las escrituras en su propia transacción (justo antes del commit), una escritura hecha
+// en otra instancia también invalida la foto de esta.
+@Component
+public class CacheEstadoTorneo {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TorneoRepository torneoRepository;
+
+    private final Map<Long, Entrada> actuales = new ConcurrentHashMap<>();
+
+    private static final class Entrada {
+        private final long version;
+        private final EstadoTorneo estado;
+
+        private Entrada(long version, EstadoTorneo estado) {
+            this.version = version;
+            this.estado = estado;
+        }
+    }
+
+    public EstadoTorneo obtener(Long torneoId, Supplier<EstadoTorneo> constructor) {
+        // La versión se lee antes de construir: si alguien escribe entre medias, la foto queda guardada con la
+        // versión anterior y la siguiente lectura la reconstruye (nunca al revés)
+        long version = versionGuardada(torneoId);
+        Entrada entrada = actuales.get(torneoId);
+        if (entrada != null && entrada.version == version) {
+            meterRegistry.counter("torneo.estado.cache", "resultado", "acierto").increment();
+            return entrada.estado;
+        }
+        meterRegistry.counter("torneo.estado.cache", "resultado", "fallo").increment();
+        EstadoTorneo estado = constructor.get();
+        // No sustituir una foto más reciente construida a la vez por otra petición
+        actuales.merge(torneoId, new Entrada(version, estado), (anterior, nueva) -> nueva.version >= anterior.version ? nueva : anterior);
+        return estado;
+    }
+
+    // Etiqueta de la versión de los datos de un torneo para el ETag. Es la misma en todas las instancias de la aplicación.
+    public String etiquetaVersion(Long torneoId) {
+        return torneoId + "-" + versionGuardada(torneoId);
+    }
+
+    // Subir la versión guardada del torneo al confirmar la transacción en curso (una vez, aunque se llame varias):
+    // a partir de ahí ninguna foto construida antes vuelve a servirse, en esta instancia ni en las demás.
+    // Todas las escrituras que cambian la foto pasan por aquí.
+    public void invalidar(Long torneoId) {
+        AntesDeConfirmar.registrar(List.of("version_datos", torneoId), () -> torneoRepository.incrementarVersion(torneoId));
+    }
+
+    // Subir las versiones de todos los torneos al confirmar (la foto de cada uno incluye la lista de torneos)
+    public void invalidarTodos() {
+        AntesDeConfirmar.registrar(List.of("version_datos"), () -> torneoRepository.incrementarVersionTodos());
+    }
+
+    // Versión guardada en la fila del torneo, leída de la primaria con una búsqueda por clave primaria
+    private long versionGuardada(Long torneoId) {
+        return EnrutadorFuenteDatos.enPrimaria(() -> torneoRepository.findVersionDatos(torneoId))
+                .orElseThrow(() -> new NoEncontradoException("Torneo no encontrado"));
+    }
+}
@@ -0,0 +1,69 @@
+package torneomus.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import torneomus.repository.TorneoRepository;
+
+// Cache del HTML ya renderizado de las rondas cerradas del historial, por torneo y número de ronda, en cada instancia.
+// Una ronda cerrada (todos sus partidos jugados y ya hay una ronda posterior) no cambia salvo que se corrija uno de
+// sus resultados o se reinicie el torneo, y esas escrituras suben torneos.version_historial en su transacción.
+// Las rondas se guardan con la versión con la que se renderizaron y solo se sirven mientras siga siendo la guardada:
+// una corrección hecha en otra instancia también las descarta.
+// La versión se lee en la misma transacción que los enfrentamientos que se renderizan (de la réplica, si la hay),
+// así que un HTML nunca se guarda con una versión más nueva que sus datos.
+@Component
+public class CacheHistorialRondas {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TorneoRepository torneoRepository;
+
+    private final Map<Long, Rondas> torneos = new ConcurrentHashMap<>();
+
+    // Rondas de un torneo renderizadas con una misma versión del historial
+    private static final class Rondas {
+        private final long version;
+        private final Map<Integer, String> html = new ConcurrentHashMap<>();
+
+        private Rondas(long version) {
+            this.version = version;
+        }
+    }
+
+    // Versión del historial del torneo (búsqueda por clave primaria); se lee una vez por página, antes que las rondas
+    public long version(Long torneoId) {
+        return torneoRepository.findVersionHistorial(torneoId)
+                .orElseThrow(() -> new NoEncontradoException("Torneo no encontrado"));
+    }
+
+    // HTML de la ronda renderizado con esa versión del historial, o null si no está en la cache
+    public String obtener(Long torneoId, int ronda, long version) {
+        Rondas rondas = torneos.get(torneoId);
+        String html = rondas != null && rondas.version == version ? rondas.html.get(ronda) : null;
+        meterRegistry.counter("torneo.historial.cache", "resultado", html != null ? "acierto" : "fallo").increment();
+        return html;
+    }
+
+    // Guardar el HTML de una ronda cerrada; se descarta si ya hay rondas guardadas con una versión más nueva
+    public void guardar(Long torneoId, int ronda, long version, String html) {
+        Rondas rondas = torneos.compute(torneoId,
+                (id, actuales) -> actuales == null || actuales.version < version ? new Rondas(version) : actuales);
+        if (rondas.version == version) {
+            rondas.html.put(ronda, html);
+        }
+    }
+
+    // Corrección de un resultado ya jugado o reinicio del torneo: sube la versión del historial al confirmar la
+    // transacción en curso y, a partir de ahí, ninguna instancia vuelve a servir las rondas renderizadas antes
+    public void invalidar(Long torneoId) {
+        AntesDeConfirmar.registrar(List.of("version_historial", torneoId), () -> torneoRepository.incrementarVersionHistorial(torneoId));
+    }
+}
@@ -0,0 +1,125 @@
+package torneomus.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+
+// Emparejador original por backtracking en dos pasadas: primero sin repetir enfrentamientos y,
+// si no hay solución, permitiendo repeticiones. Exponencial en el peor caso; se conserva como
+// alternativa (torneo.emparejamiento.estrategia=backtracking).
+@Component
+@ConditionalOnProperty(name = "torneo.emparejamiento.estrategia", havingValue = "backtracking")
+public class EmparejamientoBacktracking implements EstrategiaEmparejamiento {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    public EmparejamientoBacktracking() {}
+    
+    // Fuera de Spring (benchmarks), con el registro de métricas que se le pase
+    EmparejamientoBacktracking(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    // Contadores de una búsqueda: profundidad máxima alcanzada (enfrentamientos colocados) y vueltas atrás
+    private static final class Busqueda {
+        private int profundidadMaxima;
+        private long retrocesos;
+    }
+    
+    @Override
+    public List<Enfrentamiento> emparejar(List<Pareja> parejas, int ronda, HistorialEnfrentamientos historial, RandomGenerator random) {
+        // Backtracking: intentar sin repeticiones, si no es posible, permitirlas solo cuando sea necesario
+        Busqueda busqueda = new Busqueda();
+        List<Pareja> parejasDisponibles = new ArrayList<>(parejas);
+        List<Enfrentamiento> enfrentamientos = new ArrayList<>();
+        boolean exitoSinRepetir = intentarEmparejarRecursivo(parejasDisponibles, ronda, enfrentamientos, false, historial, random, busqueda);
+        if (!exitoSinRepetir) {
+            enfrentamientos.clear();
+            parejasDisponibles = new ArrayList<>(parejas);
+            intentarEmparejarRecursivo(parejasDisponibles, ronda, enfrentamientos, true, historial, random, busqueda);
+        }
+        registrarMetricas(busqueda, exitoSinRepetir);
+        return enfrentamientos;
+    }
+    
+    private void registrarMetricas(Busqueda busqueda, boolean exitoSinRepetir) {
+        meterRegistry.summary("torneo.emparejamiento.backtracking.profundidad").record(busqueda.profundidadMaxima);
+        meterRegistry.counter("torneo.emparejamiento.backtracking.retrocesos").increment(busqueda.retrocesos);
+        if (!exitoSinRepetir) {
+            meterRegistry.counter("torneo.emparejamiento.backtracking.con.repetidos").increment();
+        }
+    }
+    
+    // Emparejador por backtracking: prioriza no repetir; si permitirRepetidos=true, permite repetir solo cuando es necesario
+    private boolean intentarEmparejarRecursivo(List<Pareja> disponibles, int ronda, List<Enfrentamiento> salida, boolean permitirRepetidos,
+                                               HistorialEnfrentamientos historial, RandomGenerator random, Busqueda busqueda) {
+        busqueda.profundidadMaxima = Math.max(busqueda.profundidadMaxima, salida.size());
+        if (disponibles.size() < 2) {
+            return true;
+        }
+
+        // Elegir una pareja al azar para repartir mejor
+        int indice = random.nextInt(disponibles.size());
+        Pareja p1 = disponibles.remove(indice);
+
+        // Candidatos preferentes: no repetidos
+        List<Pareja> candidatosNoRepetidos = disponibles.stream()
+                .filter(p2 -> !historial.yaSeHanEnfrentado(p1.getId(), p2.getId()))
+                .collect(Collectors.toList());
+
+        // Si no hay candidatos no repetidos y no podemos repetir aún
+        if (candidatosNoRepetidos.isEmpty() && !permitirRepetidos) {
+            // Backtrack
+            busqueda.retrocesos++;
+            disponibles.add(p1);
+            return false;
+        }
+
+        // Construir lista de intentos: primero no repetidos, si se permite repetir y no hay opción, usar todos
+        List<Pareja> intentos = !candidatosNoRepetidos.isEmpty() ? candidatosNoRepetidos : (permitirRepetidos ? new ArrayList<>(disponibles) : new ArrayList<>());
+
+        // Heurística: ordenar por el número de opciones que dejaría al resto (menor primero)
+        // (se calcula una vez por candidato en lugar de en cada comparación)
+        Map<Long, Integer> opcionesRestantes = new HashMap<>();
+        for (Pareja candidato : intentos) {
+            int rest = (int) disponibles.stream()
+                    .filter(x -> !x.getId().equals(candidato.getId()))
+                    .filter(x -> !historial.yaSeHanEnfrentado(x.getId(), p1.getId()))
+                    .count();
+            opcionesRestantes.put(candidato.getId(), rest);
+        }
+        intentos.sort(java.util.Comparator.comparingInt(c -> opcionesRestantes.get(c.getId())));
+
+        for (Pareja p2 : intentos) {
+            disponibles.remove(p2);
+            Enfrentamiento enf = new Enfrentamiento(p1, p2, ronda);
+            salida.add(enf);
+            boolean ok = intentarEmparejarRecursivo(disponibles, ronda, salida, permitirRepetidos, historial, random, busqueda);
+            if (ok) {
+                // Persistencia diferida en el caller
+                return true;
+            }
+            // Backtrack
+            busqueda.retrocesos++;
+            salida.remove(salida.size() - 1);
+            disponibles.add(p2);
+        }
+
+        // No hubo forma; devolver p1
+        disponibles.add(p1);
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package torneomus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+
+// Emparejamiento perfecto de coste mínimo (blossom de Edmonds, O(n^3)) sobre el grafo completo de parejas.
+// El coste de cada posible enfrentamiento es, por orden de prioridad:
+//   1. número de veces que ya se han enfrentado (se minimiza el total de repeticiones de la ronda),
+//   2. lo reciente que fue su último enfrentamiento (si hay que repetir, mejor algo lejano),
+//   3. un pequeño ruido aleatorio para que rondas equivalentes no salgan siempre iguales.
+// Los pesos están escalados para que ningún criterio inferior pueda compensar a uno superior
+// (válido hasta unas 2000 parejas por ronda).
+@Component
+@ConditionalOnProperty(name = "torneo.emparejamiento.estrategia", havingValue = "coste-minimo", matchIfMissing = true)
+public class EmparejamientoCosteMinimo implements EstrategiaEmparejamiento {
+
+    private static final Logger log = LoggerFactory.getLogger(EmparejamientoCosteMinimo.class);
+
+    static final long COSTE_REPETICION = 10_000_000_000L;
+    private static final long COSTE_RECIENTE = 1_000_000L;
+    private static final int VENTANA_RECIENTE = 4;
+    private static final int RUIDO_MAXIMO = 1_000;
+
+    @Override
+    public List<Enfrentamiento> emparejar(List<Pareja> parejas, int ronda, HistorialEnfrentamientos historial, RandomGenerator random) {
+        int n = parejas.size();
+        List<Enfrentamiento> enfrentamientos = new ArrayList<>();
+        if (n < 2) {
+            return enfrentamientos;
+        }
+
+        int nAristas = n * (n - 1) / 2;
+        int[] origen = new int[nAristas];
+        int[] destino = new int[nAristas];
+        long[] costes = new long[nAristas];
+        long costeMaximo = 0;
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                origen[k] = i;
+                destino[k] = j;
+                costes[k] = coste(parejas.get(i), parejas.get(j), ronda, historial, random);
+                costeMaximo = Math.max(costeMaximo, costes[k]);
+                k++;
+            }
+        }
+
+        // Peso máximo con cardinalidad máxima == emparejamiento perfecto de coste mínimo
+        long[] pesos = new long[nAristas];
+        for (k = 0; k < nAristas; k++) {
+            pesos[k] = costeMaximo - costes[k] + 1;
+        }
+        int[] pareja = AlgoritmoBlossom.emparejamientoPesoMaximo(n, origen, destino, pesos, true);
+
+        int repetidos = 0;
+        for (int i = 0; i < n; i++) {
+            int j = pareja[i];
+            if (j > i) {
+                Pareja p1 = parejas.get(i);
+                Pareja p2 = parejas.get(j);
+                if (historial.yaSeHanEnfrentado(p1.getId(), p2.getId())) {
+                    repetidos++;
+                }
+                enfrentamientos.add(new Enfrentamiento(p1, p2, ronda));
+            } else if (j == -1) {
+                log.warn("Pareja {} sin rival en la ronda {}", parejas.get(i).getNombre(), ronda);
+            }
+        }
+        log.info("Emparejamiento de coste mínimo para la ronda {}: {} enfrentamientos, {} repetidos",
+                ronda, enfrentamientos.size(), repetidos);
+        return enfrentamientos;
+    }
+
+    private long coste(Pareja a, Pareja b, int ronda, HistorialEnfrentamientos historial, RandomGenerator random) {
+        long coste = random.nextInt(RUIDO_MAXIMO);
+        int veces = historial.vecesEnfrentados(a.getId(), b.getId());
+        if (veces > 0) {
+            int distancia = ronda - historial.ultimaRondaEnfrentados(a.getId(), b.getId());
+            coste += veces * COSTE_REPETICION + Math.max(0, VENTANA_RECIENTE - distancia) * COSTE_RECIENTE;
+        }
+        return coste;
+    }
+}
@@ -0,0 +1,257 @@
+package torneomus.service;
+
+import java.util.List;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
+
+// Foto inmutable del estado del torneo que se muestra en la página principal.
+// No guarda entidades JPA: se puede compartir entre peticiones sin sesión ni transacción abierta.
+public final class EstadoTorneo {
+
+    private final TorneoResumen torneo;
+    private final List<TorneoResumen> torneos;
+    private final List<ParejaResumen> parejasActivas;
+    private final List<ParejaResumen> parejasEliminadas;
+    private final int rondaActual;
+    private final int rondaAMostrar;
+    private final List<EnfrentamientoResumen> enfrentamientosActuales;
+    private final long totalParejas;
+    private final long parejasActivasCount;
+    private final int pendientesRondaActual;
+    private final boolean puedeGenerarNuevaRonda;
+    private final boolean puedeGenerarPrimerasDosRondas;
+    private final boolean torneoTerminado;
+    private final ParejaResumen parejaGanadora;
+    // Versión de los datos del torneo (torneos.version_datos) leída al empezar a construir la foto
+    private final long version;
+
+    public EstadoTorneo(TorneoResumen torneo, List<TorneoResumen> torneos, List<ParejaResumen> parejasActivas, List<ParejaResumen> parejasEliminadas,
+                        int rondaActual, int rondaAMostrar, List<EnfrentamientoResumen> enfrentamientosActuales,
+                        long totalParejas, long parejasActivasCount, int pendientesRondaActual,
+                        boolean puedeGenerarNuevaRonda, boolean puedeGenerarPrimerasDosRondas,
+                        boolean torneoTerminado, ParejaResumen parejaGanadora, long version) {
+        this.torneo = torneo;
+        this.torneos = List.copyOf(torneos);
+        this.parejasActivas = List.copyOf(parejasActivas);
+        this.parejasEliminadas = List.copyOf(parejasEliminadas);
+        this.rondaActual = rondaActual;
+        this.rondaAMostrar = rondaAMostrar;
+        this.enfrentamientosActuales = List.copyOf(enfrentamientosActuales);
+        this.totalParejas = totalParejas;
+        this.parejasActivasCount = parejasActivasCount;
+        this.pendientesRondaActual = pendientesRondaActual;
+        this.puedeGenerarNuevaRonda = puedeGenerarNuevaRonda;
+        this.puedeGenerarPrimerasDosRondas = puedeGenerarPrimerasDosRondas;
+        this.torneoTerminado = torneoTerminado;
+        this.parejaGanadora = parejaGanadora;
+        this.version = version;
+    }
+
+    public TorneoResumen getTorneo() {
+        return torneo;
+    }
+
+    public List<TorneoResumen> getTorneos() {
+        return torneos;
+    }
+
+    public List<ParejaResumen> getParejasActivas() {
+        return parejasActivas;
+    }
+
+    public List<ParejaResumen> getParejasEliminadas() {
+        return parejasEliminadas;
+    }
+
+    public int getRondaActual() {
+        return rondaActual;
+    }
+
+    public int getRondaAMostrar() {
+        return rondaAMostrar;
+    }
+
+    public List<EnfrentamientoResumen> getEnfrentamientosActuales() {
+        return enfrentamientosActuales;
+    }
+
+    public long getTotalParejas() {
+        return totalParejas;
+    }
+
+    public long getParejasActivasCount() {
+        return parejasActivasCount;
+    }
+
+    public int getPendientesRondaActual() {
+        return pendientesRondaActual;
+    }
+
+    public boolean isPuedeGenerarNuevaRonda() {
+        return puedeGenerarNuevaRonda;
+    }
+
+    public boolean isPuedeGenerarPrimerasDosRondas() {
+        return puedeGenerarPrimerasDosRondas;
+    }
+
+    public boolean isHayOrdenMezclado() {
+        return false; // No hay orden mezclado manual
+    }
+
+    public boolean isTorneoTerminado() {
+        return torneoTerminado;
+    }
+
+    public ParejaResumen getParejaGanadora() {
+        return parejaGanadora;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Datos de un torneo tal y como estaban al construir la foto
+    public static final class TorneoResumen {
+
+        private final Long id;
+        private final String nombre;
+        private final Torneo.Estado estado;
+
+        public TorneoResumen(Torneo torneo) {
+            this.id = torneo.getId();
+            this.nombre = torneo.getNombre();
+            this.estado = torneo.getEstado();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public Torneo.Estado getEstado() {
+            return estado;
+        }
+    }
+
+    // Datos de una pareja tal y como estaban al construir la foto
+    public static final class ParejaResumen {
+
+        private final Long id;
+        private final String nombre;
+        private final int derrotas;
+        private final int descansos;
+        private final boolean eliminada;
+        private final int victorias;
+        private final int jugados;
+        private final int rivales;
+        private final Integer rondaEliminacion;
+
+        public ParejaResumen(Pareja pareja) {
+            this.id = pareja.getId();
+            this.nombre = pareja.getNombre();
+            this.derrotas = pareja.getDerrotas();
+            this.descansos = pareja.getDescansos();
+            this.eliminada = pareja.isEliminada();
+            this.victorias = pareja.getVictorias();
+            this.jugados = pareja.getJugados();
+            this.rivales = pareja.getRivales();
+            this.rondaEliminacion = pareja.getRondaEliminacion();
+        }
+
+        static ParejaResumen de(Pareja pareja) {
+            return pareja != null ? new ParejaResumen(pareja) : null;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public int getDerrotas() {
+            return derrotas;
+        }
+
+        public int getDescansos() {
+            return descansos;
+        }
+
+        public boolean isEliminada() {
+            return eliminada;
+        }
+
+        public int getVictorias() {
+            return victorias;
+        }
+
+        public int getJugados() {
+            return jugados;
+        }
+
+        public int getRivales() {
+            return rivales;
+        }
+
+        public Integer getRondaEliminacion() {
+            return rondaEliminacion;
+        }
+    }
+
+    // Datos de un enfrentamiento tal y como estaban al construir la foto
+    public static final class EnfrentamientoResumen {
+
+        private final Long id;
+        private final ParejaResumen pareja1;
+        private final ParejaResumen pareja2;
+        private final int ronda;
+        private final ParejaResumen ganador;
+        private final boolean jugado;
+        private final boolean descanso;
+
+        public EnfrentamientoResumen(Enfrentamiento enfrentamiento) {
+            this.id = enfrentamiento.getId();
+            this.pareja1 = ParejaResumen.de(enfrentamiento.getPareja1());
+            this.pareja2 = ParejaResumen.de(enfrentamiento.getPareja2());
+            this.ronda = enfrentamiento.getRonda();
+            this.ganador = ParejaResumen.de(enfrentamiento.getGanador());
+            this.jugado = enfrentamiento.isJugado();
+            this.descanso = enfrentamiento.isDescanso();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public ParejaResumen getPareja1() {
+            return pareja1;
+        }
+
+        public ParejaResumen getPareja2() {
+            return pareja2;
+        }
+
+        public int getRonda() {
+            return ronda;
+        }
+
+        public ParejaResumen getGanador() {
+            return ganador;
+        }
+
+        public boolean isJugado() {
+            return jugado;
+        }
+
+        public boolean isDescanso() {
+            return descanso;
+        }
+    }
+}
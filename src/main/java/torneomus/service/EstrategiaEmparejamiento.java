@@ -0,0 +1,15 @@
+package torneomus.service;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+
+// Motor de emparejamiento usado por TorneoService al generar cada ronda.
+// Recibe las parejas que deben jugar (ya sin la que descansa) y no debe consultar la base de datos:
+// todo lo que necesita del pasado está en el historial.
+public interface EstrategiaEmparejamiento {
+
+    List<Enfrentamiento> emparejar(List<Pareja> parejas, int ronda, HistorialEnfrentamientos historial, RandomGenerator random);
+}
@@ -0,0 +1,188 @@
+package torneomus.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import torneomus.config.EnrutadorFuenteDatos;
+import torneomus.repository.TorneoRepository;
+
+// Canal Server-Sent Events por torneo. Cada escritura publica un evento pequeño (el cambio, no el estado entero)
+// que se reparte a todos los navegadores abiertos: una escritura cuesta lo mismo con 1 que con 500 espectadores.
+// Los navegadores están conectados a una instancia concreta de la aplicación. Los eventos de las escrituras hechas
+// en ella llevan el detalle; las de otras instancias se detectan sondeando la versión de los datos de cada torneo
+// (torneos.version_datos) y se anuncian con un evento "version". Todos los eventos llevan la versión a la que
+// corresponden, y el navegador recarga cuando le llega una que no ha visto.
+@Component
+public class EventosTorneo {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosTorneo.class);
+
+    // Las conexiones se cierran a los 30 minutos; EventSource vuelve a conectar solo
+    private static final long DURACION_CONEXION_MS = 30 * 60 * 1000L;
+
+    // Hilos que hacen los envíos: un navegador lento ocupa uno mientras su envío bloquea, nunca todos
+    private static final int HILOS_REPARTO = 4;
+
+    // Eventos en cola por navegador: si no los recoge, se cierra su conexión (al volver a conectar recarga la página)
+    private static final int MAXIMO_PENDIENTES = 64;
+
+    @Autowired
+    private TorneoRepository torneoRepository;
+
+    private final Map<Long, List<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+
+    // Última versión de cada torneo anunciada desde esta instancia
+    private final Map<Long, Long> versionesAnunciadas = new ConcurrentHashMap<>();
+
+    // Pool acotado para los envíos, fuera de la petición que escribió. Cada navegador tiene su cola y como mucho
+    // una tarea en el pool, que le envía sus eventos en orden
+    private final ExecutorService repartidor = Executors.newFixedThreadPool(HILOS_REPARTO, r -> {
+        Thread hilo = new Thread(r, "eventos-torneo");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Un navegador conectado y los eventos que le quedan por enviar
+    private final class Suscriptor {
+        private final SseEmitter emisor;
+        private final List<Suscriptor> lista;
+        private final Queue<Map.Entry<String, Object>> pendientes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger enCola = new AtomicInteger();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emisor, List<Suscriptor> lista) {
+            this.emisor = emisor;
+            this.lista = lista;
+        }
+
+        private void encolar(String tipo, Object datos) {
+            if (enCola.incrementAndGet() > MAXIMO_PENDIENTES) {
+                lista.remove(this);
+                emisor.complete();
+                return;
+            }
+            pendientes.add(Map.entry(tipo, datos));
+            programar();
+        }
+
+        private void programar() {
+            if (enviando.compareAndSet(false, true)) {
+                repartidor.execute(this::enviar);
+            }
+        }
+
+        private void enviar() {
+            try {
+                Map.Entry<String, Object> evento;
+                while ((evento = pendientes.poll()) != null) {
+                    enCola.decrementAndGet();
+                    emisor.send(SseEmitter.event().name(evento.getKey()).data(evento.getValue(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Navegador desconectado
+                lista.remove(this);
+                pendientes.clear();
+                return;
+            } finally {
+                enviando.set(false);
+            }
+            // Un evento encolado mientras se terminaba el envío
+            if (!pendientes.isEmpty()) {
+                programar();
+            }
+        }
+    }
+
+    public SseEmitter suscribir(Long torneoId) {
+        SseEmitter emisor = new SseEmitter(DURACION_CONEXION_MS);
+        List<Suscriptor> lista = suscriptores.computeIfAbsent(torneoId, id -> new CopyOnWriteArrayList<>());
+        Suscriptor suscriptor = new Suscriptor(emisor, lista);
+        lista.add(suscriptor);
+        emisor.onCompletion(() -> lista.remove(suscriptor));
+        emisor.onTimeout(() -> lista.remove(suscriptor));
+        emisor.onError(e -> lista.remove(suscriptor));
+        return emisor;
+    }
+
+    // Publicar un evento cuando la transacción en curso confirme (nunca si se deshace). La versión se lee justo antes
+    // del commit, después de que CacheEstadoTorneo.invalidar la suba (AntesDeConfirmar va primero), así que el evento
+    // lleva la versión de esta escritura.
+    public void publicar(Long torneoId, String tipo, Map<String, Object> datos) {
+        Map<String, Object> conVersion = new LinkedHashMap<>(datos);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    anotarVersion(torneoId, conVersion);
+                }
+
+                @Override
+                public void afterCommit() {
+                    repartir(torneoId, tipo, conVersion);
+                }
+            });
+        } else {
+            anotarVersion(torneoId, conVersion);
+            repartir(torneoId, tipo, conVersion);
+        }
+    }
+
+    private void anotarVersion(Long torneoId, Map<String, Object> datos) {
+        torneoRepository.findVersionDatos(torneoId).ifPresent(version -> datos.put("version", version));
+    }
+
+    // Escrituras de cualquier instancia (también de esta): se leen de la primaria, en una consulta, las versiones de
+    // los torneos con navegadores conectados aquí y se anuncian las que han cambiado desde el último sondeo.
+    // El navegador ignora las versiones que ya ha visto por los eventos de esta instancia.
+    @Scheduled(fixedDelayString = "${torneo.eventos.sondeo-ms:2000}")
+    public void anunciarVersiones() {
+        Set<Long> torneos = suscriptores.entrySet().stream()
+                .filter(e -> !e.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        versionesAnunciadas.keySet().retainAll(torneos);
+        if (torneos.isEmpty()) {
+            return;
+        }
+        for (Object[] fila : EnrutadorFuenteDatos.enPrimaria(() -> torneoRepository.findVersionesDatos(torneos))) {
+            Long torneoId = (Long) fila[0];
+            Long version = (Long) fila[1];
+            if (!version.equals(versionesAnunciadas.put(torneoId, version))) {
+                repartir(torneoId, "version", Map.of("version", version));
+            }
+        }
+    }
+
+    private void repartir(Long torneoId, String tipo, Object datos) {
+        List<Suscriptor> lista = suscriptores.get(torneoId);
+        if (lista == null || lista.isEmpty()) {
+            return;
+        }
+        for (Suscriptor suscriptor : lista) {
+            suscriptor.encolar(tipo, datos);
+        }
+        log.debug("Evento '{}' del torneo {} encolado para {} suscriptores", tipo, torneoId, lista.size());
+    }
+}
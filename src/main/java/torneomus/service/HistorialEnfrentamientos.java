@@ -0,0 +1,124 @@
+package torneomus.service;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Foto en memoria de los enfrentamientos ya generados, cargada una sola vez por generación de ronda.
+// Permite que el emparejador consulte "ya se han enfrentado", "jugó en la ronda anterior" y
+// "partidos recientes" sin lanzar ninguna consulta SQL durante la búsqueda.
+public class HistorialEnfrentamientos {
+
+    // Posición densa de cada pareja (por id) dentro de la matriz
+    private final Map<Long, Integer> indices = new HashMap<>();
+
+    // Matriz de adyacencia n x n empaquetada en un único BitSet: bit (i * n + j) => i y j ya se han enfrentado
+    private final BitSet enfrentados;
+
+    // Rondas en las que aparece cada pareja (incluye descansos y partidos pendientes)
+    private final BitSet[] rondasConPartido;
+
+    // Partidos jugados en las dos últimas rondas por cada pareja
+    private final int[] recientes;
+
+    // Para cada par que ya se ha enfrentado (clave i * n + j con i < j): {veces, última ronda}
+    private final Map<Integer, int[]> detallePares = new HashMap<>();
+
+    private final int n;
+
+    // Cada fila es {pareja1Id, pareja2Id, ronda, jugado}; pareja2Id puede ser null
+    public HistorialEnfrentamientos(List<Long> idsParejas, List<Object[]> filas) {
+        for (Long id : idsParejas) {
+            indices.putIfAbsent(id, indices.size());
+        }
+        this.n = indices.size();
+        this.enfrentados = new BitSet(n * n);
+        this.rondasConPartido = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            rondasConPartido[i] = new BitSet();
+        }
+        this.recientes = new int[n];
+
+        int rondaMaxima = 0;
+        for (Object[] fila : filas) {
+            rondaMaxima = Math.max(rondaMaxima, ((Number) fila[2]).intValue());
+        }
+
+        for (Object[] fila : filas) {
+            Integer a = indice((Long) fila[0]);
+            Integer b = fila[1] != null ? indice((Long) fila[1]) : null;
+            int ronda = ((Number) fila[2]).intValue();
+            boolean jugado = (Boolean) fila[3];
+
+            if (a != null) {
+                rondasConPartido[a].set(ronda);
+            }
+            if (b != null && !b.equals(a)) {
+                rondasConPartido[b].set(ronda);
+            }
+            if (a != null && b != null && !a.equals(b)) {
+                enfrentados.set(a * n + b);
+                enfrentados.set(b * n + a);
+                int[] detalle = detallePares.computeIfAbsent(Math.min(a, b) * n + Math.max(a, b), k -> new int[2]);
+                detalle[0]++;
+                detalle[1] = Math.max(detalle[1], ronda);
+            }
+            if (jugado && ronda >= rondaMaxima - 1) {
+                if (a != null) {
+                    recientes[a]++;
+                }
+                if (b != null && !b.equals(a)) {
+                    recientes[b]++;
+                }
+            }
+        }
+    }
+
+    private Integer indice(Long parejaId) {
+        return parejaId != null ? indices.get(parejaId) : null;
+    }
+
+    // Verificar si dos parejas ya se han enfrentado en alguna ronda
+    public boolean yaSeHanEnfrentado(Long pareja1Id, Long pareja2Id) {
+        Integer a = indice(pareja1Id);
+        Integer b = indice(pareja2Id);
+        if (a == null || b == null) {
+            return false;
+        }
+        return enfrentados.get(a * n + b);
+    }
+
+    // Número de veces que dos parejas se han enfrentado
+    public int vecesEnfrentados(Long pareja1Id, Long pareja2Id) {
+        int[] detalle = detallePar(pareja1Id, pareja2Id);
+        return detalle != null ? detalle[0] : 0;
+    }
+
+    // Última ronda en la que se enfrentaron dos parejas, o 0 si nunca lo hicieron
+    public int ultimaRondaEnfrentados(Long pareja1Id, Long pareja2Id) {
+        int[] detalle = detallePar(pareja1Id, pareja2Id);
+        return detalle != null ? detalle[1] : 0;
+    }
+
+    private int[] detallePar(Long pareja1Id, Long pareja2Id) {
+        Integer a = indice(pareja1Id);
+        Integer b = indice(pareja2Id);
+        if (a == null || b == null || a.equals(b)) {
+            return null;
+        }
+        return detallePares.get(Math.min(a, b) * n + Math.max(a, b));
+    }
+
+    // Verificar si una pareja tiene algún enfrentamiento (o descanso) en la ronda indicada
+    public boolean tienePartidoEnRonda(Long parejaId, int ronda) {
+        Integer a = indice(parejaId);
+        return a != null && rondasConPartido[a].get(ronda);
+    }
+
+    // Número de partidos jugados por la pareja en las dos últimas rondas
+    public int enfrentamientosRecientes(Long parejaId) {
+        Integer a = indice(parejaId);
+        return a != null ? recientes[a] : 0;
+    }
+}
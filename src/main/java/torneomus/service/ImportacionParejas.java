@@ -0,0 +1,28 @@
+package torneomus.service;
+
+import java.util.List;
+
+// Resultado de una importación de parejas: cuántas se han inscrito y, por cada línea rechazada, el motivo.
+// Las líneas válidas se inscriben aunque haya otras rechazadas.
+public final class ImportacionParejas {
+
+    private final int registradas;
+    private final List<String> errores;
+
+    public ImportacionParejas(int registradas, List<String> errores) {
+        this.registradas = registradas;
+        this.errores = List.copyOf(errores);
+    }
+
+    public int getRegistradas() {
+        return registradas;
+    }
+
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    public boolean hayErrores() {
+        return !errores.isEmpty();
+    }
+}
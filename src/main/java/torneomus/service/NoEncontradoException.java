@@ -0,0 +1,9 @@
+package torneomus.service;
+
+// Torneo, enfrentamiento o pareja que no existe. La API lo responde con un 404; el resto de errores son un 500.
+public class NoEncontradoException extends RuntimeException {
+
+    public NoEncontradoException(String mensaje) {
+        super(mensaje);
+    }
+}
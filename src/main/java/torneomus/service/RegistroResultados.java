@@ -0,0 +1,143 @@
+package torneomus.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.EventoResultado;
+import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
+import torneomus.repository.EnfrentamientoRepository;
+import torneomus.repository.EventoResultadoRepository;
+import torneomus.repository.ParejaRepository;
+
+// Registro de resultados (solo se añade) y su proyección sobre las parejas (clasificación) y los enfrentamientos.
+// Cada evento se aplica en cuanto se registra tocando solo su enfrentamiento y sus dos parejas; reconstruir()
+// recalcula la clasificación de todo un torneo reproduciendo el registro desde el principio.
+// Se llama siempre dentro de la transacción de quien registra el resultado.
+@Component
+public class RegistroResultados {
+
+    @Autowired
+    private EventoResultadoRepository eventoResultadoRepository;
+
+    @Autowired
+    private ParejaRepository parejaRepository;
+
+    @Autowired
+    private EnfrentamientoRepository enfrentamientoRepository;
+
+    // Registrar que el ganador gana el enfrentamiento. Si ya tenía otro ganador, antes se anula ese resultado.
+    public void registrar(Enfrentamiento enfrentamiento, Pareja ganador) {
+        Pareja ganadorAnterior = enfrentamiento.getGanador();
+        if (ganadorAnterior != null) {
+            anotar(new EventoResultado(EventoResultado.Tipo.ANULACION, enfrentamiento,
+                    ganadorAnterior, enfrentamiento.getRival(ganadorAnterior)));
+        }
+        anotar(new EventoResultado(EventoResultado.Tipo.RESULTADO, enfrentamiento,
+                ganador, enfrentamiento.getRival(ganador)));
+    }
+
+    private void anotar(EventoResultado evento) {
+        eventoResultadoRepository.save(evento);
+        aplicar(evento);
+    }
+
+    // Proyección de un evento: el enfrentamiento y la clasificación de sus dos parejas
+    private void aplicar(EventoResultado evento) {
+        Enfrentamiento enfrentamiento = evento.getEnfrentamiento();
+        Pareja ganador = evento.getGanador();
+        Pareja perdedor = evento.getPerdedor();
+        // Un rival cuenta mientras haya al menos un partido con resultado contra él (índice por pareja1/pareja2)
+        boolean unicoContraEseRival = perdedor != null
+                && !enfrentamientoRepository.existsOtroJugadoEntre(ganador, perdedor, enfrentamiento.getId());
+        if (evento.getTipo() == EventoResultado.Tipo.RESULTADO) {
+            enfrentamiento.setGanador(ganador);
+            enfrentamiento.setJugado(true);
+            ganador.agregarVictoria();
+            if (perdedor != null) {
+                perdedor.agregarDerrota(enfrentamiento.getRonda());
+                if (unicoContraEseRival) {
+                    ganador.agregarRival();
+                    perdedor.agregarRival();
+                }
+            }
+        } else {
+            enfrentamiento.setGanador(null);
+            enfrentamiento.setJugado(false);
+            ganador.quitarVictoria();
+            if (perdedor != null) {
+                perdedor.quitarDerrota();
+                if (unicoContraEseRival) {
+                    ganador.quitarRival();
+                    perdedor.quitarRival();
+                }
+            }
+        }
+    }
+
+    // Recalcular la clasificación (derrotas, eliminación, victorias, partidos y rivales) de todas las parejas del
+    // torneo a partir del registro. Devuelve cuántas parejas tenían un valor distinto del que sale del registro.
+    public int reconstruir(Torneo torneo) {
+        List<Pareja> parejas = parejaRepository.findByTorneo(torneo);
+        Map<Long, Pareja> porId = parejas.stream().collect(Collectors.toMap(Pareja::getId, Function.identity()));
+        Map<Long, List<Object>> antes = parejas.stream().collect(Collectors.toMap(Pareja::getId, RegistroResultados::clasificacion));
+
+        parejas.forEach(Pareja::reiniciarClasificacion);
+        // Partidos con resultado vigentes entre cada par de parejas (para contar rivales distintos)
+        Map<List<Long>, Integer> partidosEntre = new HashMap<>();
+        for (Object[] fila : eventoResultadoRepository.findRegistro(torneo)) {
+            boolean resultado = fila[0] == EventoResultado.Tipo.RESULTADO;
+            Pareja ganador = porId.get((Long) fila[1]);
+            Pareja perdedor = fila[2] != null ? porId.get((Long) fila[2]) : null;
+            int ronda = ((Number) fila[3]).intValue();
+            if (ganador == null) {
+                continue;
+            }
+            if (resultado) {
+                ganador.agregarVictoria();
+            } else {
+                ganador.quitarVictoria();
+            }
+            if (perdedor == null) {
+                continue;
+            }
+            List<Long> par = List.of(Math.min(ganador.getId(), perdedor.getId()), Math.max(ganador.getId(), perdedor.getId()));
+            int partidos = partidosEntre.merge(par, resultado ? 1 : -1, Integer::sum);
+            if (resultado) {
+                perdedor.agregarDerrota(ronda);
+                if (partidos == 1) {
+                    ganador.agregarRival();
+                    perdedor.agregarRival();
+                }
+            } else {
+                perdedor.quitarDerrota();
+                if (partidos == 0) {
+                    ganador.quitarRival();
+                    perdedor.quitarRival();
+                }
+            }
+        }
+
+        // Las parejas sin cambios no generan UPDATE (Hibernate compara con el estado cargado)
+        int corregidas = 0;
+        for (Pareja pareja : parejas) {
+            if (!antes.get(pareja.getId()).equals(clasificacion(pareja))) {
+                corregidas++;
+            }
+        }
+        return corregidas;
+    }
+
+    private static List<Object> clasificacion(Pareja pareja) {
+        return Arrays.asList(pareja.getDerrotas(), pareja.isEliminada(), pareja.getVictorias(),
+                pareja.getJugados(), pareja.getRivales(), pareja.getRondaEliminacion());
+    }
+}
@@ -0,0 +1,35 @@
+package torneomus.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+import torneomus.entity.Pareja;
+
+// Elección de la pareja que descansa cuando el número de parejas activas es impar:
+// al azar entre las que acumulan menos descansos.
+public final class SeleccionDescanso {
+
+    private SeleccionDescanso() {}
+
+    // Devuelve la pareja que descansa (sin quitarla de la lista), o null si el número de parejas es par.
+    // Deja la lista ordenada por descansos y nombre, que es el orden en que la reciben los emparejadores.
+    public static Pareja elegir(List<Pareja> parejas, RandomGenerator random) {
+        if (parejas.size() % 2 == 0) {
+            return null;
+        }
+        parejas.sort(Comparator.comparingInt(Pareja::getDescansos).thenComparing(Pareja::getNombre));
+        
+        // Encontrar el mínimo número de descansos
+        int minDescansos = parejas.get(0).getDescansos();
+        
+        // Filtrar parejas con el mínimo número de descansos
+        List<Pareja> candidatos = parejas.stream()
+                .filter(p -> p.getDescansos() == minDescansos)
+                .collect(Collectors.toList());
+        
+        // Seleccionar aleatoriamente entre los candidatos
+        return candidatos.get(random.nextInt(candidatos.size()));
+    }
+}
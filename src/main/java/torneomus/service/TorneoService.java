@@ -1,22 +1,46 @@
 package torneomus.service;
 
+import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import torneomus.config.EnrutadorFuenteDatos;
 import torneomus.entity.Enfrentamiento;
 import torneomus.entity.Pareja;
+import torneomus.entity.Torneo;
 import torneomus.repository.EnfrentamientoRepository;
+import torneomus.repository.EventoResultadoRepository;
 import torneomus.repository.ParejaRepository;
+import torneomus.repository.TorneoRepository;
 
 @Service
 public class TorneoService {
@@ -29,45 +53,209 @@ public class TorneoService {
     @Autowired
     private EnfrentamientoRepository enfrentamientoRepository;
 
+    @Autowired
+    private TorneoRepository torneoRepository;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EstrategiaEmparejamiento estrategiaEmparejamiento;
+
+    @Autowired
+    private CacheEstadoTorneo cacheEstadoTorneo;
     
-    // Variable para generar aleatoriedad consistente por ronda
-    private java.util.Random randomGenerator = new java.util.Random();
+    @Autowired
+    private CacheHistorialRondas cacheHistorialRondas;
+    
+    @Autowired
+    private EventosTorneo eventosTorneo;
 
-    // Cerrojo simple en memoria para evitar generaciones concurrentes
-    private final Object generacionLock = new Object();
+    @Autowired
+    private RegistroResultados registroResultados;
+
+    @Autowired
+    private EventoResultadoRepository eventoResultadoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Cerrojos en memoria por torneo: ordenan los hilos de esta instancia antes de ir a la base de datos.
+    // El cerrojo que cuenta entre instancias es el bloqueo de la fila del torneo (ver bloquearTorneo).
+    // ReentrantLock en lugar de un monitor: un hilo virtual que espera a JDBC dentro de un monitor fija su hilo portador.
+    private final Map<Long, ReentrantLock> cerrojosGeneracion = new ConcurrentHashMap<>();
+
+    // Reintentos de registrarResultado ante conflictos de versión
+    private static final int MAX_INTENTOS_RESULTADO = 3;
+    
+    // Límites de una importación de parejas (la columna nombre es VARCHAR(255))
+    private static final int MAXIMO_LINEAS_IMPORTACION = 2000;
+    private static final int LONGITUD_MAXIMA_NOMBRE = 255;
+
+    // Id del torneo por defecto (el más antiguo), resuelto una vez
+    private volatile Long torneoPorDefectoId;
+    
+    private ReentrantLock cerrojoGeneracion(Long torneoId) {
+        return cerrojosGeneracion.computeIfAbsent(torneoId, id -> new ReentrantLock());
+    }
+    
+    // Crear un nuevo torneo independiente
+    @Transactional
+    public Torneo crearTorneo(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            throw new RuntimeException("El torneo necesita un nombre");
+        }
+        Torneo torneo = torneoRepository.save(new Torneo(nombre.trim()));
+        cacheEstadoTorneo.invalidarTodos();
+        log.info("Torneo creado: {}", torneo);
+        return torneo;
+    }
+    
+    // Obtener todos los torneos
+    public List<Torneo> getTorneos() {
+        return torneoRepository.findAllByOrderByIdAsc();
+    }
     
-    // Método auxiliar para selección aleatoria
-    private int seleccionarIndiceAleatorio(int maximo) {
-        return randomGenerator.nextInt(maximo);
+    // Resolver el torneo de una petición: el indicado o, si no se indica, el torneo por defecto
+    public Long resolverTorneo(Long torneoId) {
+        if (torneoId != null) {
+            return torneoId;
+        }
+        Long id = torneoPorDefectoId;
+        if (id == null) {
+            id = torneoRepository.findFirstByOrderByIdAsc()
+                    .map(Torneo::getId)
+                    .orElseThrow(() -> new NoEncontradoException("No hay ningún torneo creado"));
+            torneoPorDefectoId = id;
+        }
+        return id;
     }
     
     // Registrar una nueva pareja
     @Transactional
-    public Pareja registrarPareja(String nombre) {
-        log.info("Registrando pareja: {}", nombre);
-        if (parejaRepository.existsByNombre(nombre)) {
+    public Pareja registrarPareja(Long torneoId, String nombre) {
+        log.info("Registrando pareja: {} en torneo {}", nombre, torneoId);
+        Torneo torneo = obtenerTorneo(torneoId);
+        if (parejaRepository.existsByTorneoAndNombre(torneo, nombre)) {
             throw new RuntimeException("Ya existe una pareja con ese nombre");
         }
         
-        Pareja pareja = new Pareja(nombre);
+        Pareja pareja = new Pareja(nombre, torneo);
         Pareja guardada = parejaRepository.save(pareja);
+        cacheEstadoTorneo.invalidar(torneoId);
         log.info("Pareja registrada con id {}", guardada.getId());
         return guardada;
     }
     
+    // Importar parejas de golpe desde un texto pegado o un CSV: una pareja por línea. Si la línea trae varias columnas
+    // (separadas por ; , o tabulador) se unen con " y " ("Jauma;Lucas" -> "Jauma y Lucas"). Se ignoran las líneas
+    // vacías, las que empiezan por # y una cabecera "nombre" o "jugador1" en la primera línea.
+    // Los nombres del torneo se leen en una sola consulta y las parejas nuevas se insertan en lote en una transacción;
+    // las líneas repetidas (dentro del lote o ya inscritas) se rechazan una a una sin impedir el resto.
+    @Transactional
+    public ImportacionParejas importarParejas(Long torneoId, String texto) {
+        Torneo torneo = obtenerTorneo(torneoId);
+        String[] lineas = texto == null ? new String[0] : texto.split("\\R");
+        if (lineas.length > MAXIMO_LINEAS_IMPORTACION) {
+            throw new RuntimeException("Como máximo se pueden importar " + MAXIMO_LINEAS_IMPORTACION + " líneas de una vez");
+        }
+
+        // Motivo de rechazo por número de línea, en el orden del texto
+        Map<Integer, String> errores = new TreeMap<>();
+        // Nombre normalizado (ver claveNombre) -> línea en la que aparece por primera vez
+        Map<String, Integer> lineaPorNombre = new HashMap<>();
+        Map<Integer, String> nombrePorLinea = new LinkedHashMap<>();
+        for (int i = 0; i < lineas.length; i++) {
+            String nombre = nombreDeLinea(lineas[i]);
+            if (nombre.isEmpty() || nombre.startsWith("#") || (i == 0 && esCabecera(nombre))) {
+                continue;
+            }
+            int numeroLinea = i + 1;
+            if (nombre.length() > LONGITUD_MAXIMA_NOMBRE) {
+                errores.put(numeroLinea, "Línea " + numeroLinea + ": el nombre tiene más de " + LONGITUD_MAXIMA_NOMBRE + " caracteres");
+                continue;
+            }
+            Integer anterior = lineaPorNombre.putIfAbsent(claveNombre(nombre), numeroLinea);
+            if (anterior != null) {
+                errores.put(numeroLinea, "Línea " + numeroLinea + " (" + nombre + "): repetida, ya aparece en la línea " + anterior);
+                continue;
+            }
+            nombrePorLinea.put(numeroLinea, nombre);
+        }
+
+        if (!nombrePorLinea.isEmpty()) {
+            Set<String> inscritos = parejaRepository.findNombresInscritos(torneo).stream()
+                    .map(TorneoService::claveNombre)
+                    .collect(Collectors.toSet());
+            nombrePorLinea.entrySet().removeIf(e -> {
+                if (inscritos.contains(claveNombre(e.getValue()))) {
+                    errores.put(e.getKey(), "Línea " + e.getKey() + " (" + e.getValue() + "): ya está inscrita en el torneo");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        List<Pareja> nuevas = nombrePorLinea.values().stream()
+                .map(nombre -> new Pareja(nombre, torneo))
+                .collect(Collectors.toList());
+        parejaRepository.insertarEnLote(nuevas);
+        if (!nuevas.isEmpty()) {
+            cacheEstadoTorneo.invalidar(torneoId);
+        }
+        log.info("Importadas {} parejas en torneo {} ({} líneas rechazadas)", nuevas.size(), torneoId, errores.size());
+        return new ImportacionParejas(nuevas.size(), new ArrayList<>(errores.values()));
+    }
+
+    private static String nombreDeLinea(String linea) {
+        String[] columnas = linea.split("[;,\\t]");
+        List<String> partes = new ArrayList<>();
+        for (String columna : columnas) {
+            String parte = columna.trim();
+            if (parte.length() >= 2 && parte.startsWith("\"") && parte.endsWith("\"")) {
+                parte = parte.substring(1, parte.length() - 1).trim();
+            }
+            if (!parte.isEmpty()) {
+                partes.add(parte);
+            }
+        }
+        return String.join(" y ", partes);
+    }
+
+    // Nombre normalizado sin mayúsculas ni acentos: "Los Leones" y "los leónes" son la misma pareja. La columna no fija
+    // intercalación (en MySQL 8 la del servidor, utf8mb4_0900_ai_ci, que tampoco los distingue; en H2 se distinguen),
+    // así que la comparación con las ya inscritas también se hace con esta clave y no en la consulta
+    private static String claveNombre(String nombre) {
+        return Normalizer.normalize(nombre, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean esCabecera(String nombre) {
+        String primera = nombre.toLowerCase(Locale.ROOT).split(" y ")[0].replace(" ", "");
+        return primera.equals("nombre") || primera.equals("pareja") || primera.equals("jugador1");
+    }
+    
     // Generar las dos primeras rondas de una vez (solo para inicio del torneo)
     @Transactional
-    public List<Enfrentamiento> generarPrimerasDosRondas() {
-        synchronized (generacionLock) {
-            if (getRondaActual() > 0) {
+    @Timed(value = "torneo.ronda.generacion", extraTags = {"tipo", "primeras-dos"}, description = "Generación de rondas (bloqueo, emparejamiento y persistencia)")
+    public List<Enfrentamiento> generarPrimerasDosRondas(Long torneoId) {
+        ReentrantLock cerrojo = cerrojoGeneracion(torneoId);
+        cerrojo.lock();
+        try {
+            // Bloquear la fila del torneo hasta el commit: otra instancia que intente generar espera aquí
+            // y después ve la ronda ya generada
+            Torneo torneo = torneoRepository.bloquearTorneo(torneoId);
+            if (torneo.getRondaActual() > 0) {
                 throw new RuntimeException("Solo se pueden generar las primeras dos rondas cuando el torneo está en ronda 0");
             }
 
             // Si por alguna razón ya existen enfrentamientos de ronda 1 o 2, retornar existentes
-            List<Enfrentamiento> existentesR1 = enfrentamientoRepository.findByRondaOrderById(1);
-            List<Enfrentamiento> existentesR2 = enfrentamientoRepository.findByRondaOrderById(2);
+            List<Enfrentamiento> existentesR1 = enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, 1);
+            List<Enfrentamiento> existentesR2 = enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, 2);
             if (!existentesR1.isEmpty() || !existentesR2.isEmpty()) {
                 List<Enfrentamiento> existentes = new ArrayList<>();
                 existentes.addAll(existentesR1);
@@ -79,62 +267,71 @@ public class TorneoService {
             List<Enfrentamiento> todasLasRondas = new ArrayList<>();
 
             // Generar primera ronda
-            List<Enfrentamiento> primeraRonda = generarSiguienteRonda();
+            List<Enfrentamiento> primeraRonda = generarSiguienteRonda(torneoId);
             todasLasRondas.addAll(primeraRonda);
 
             // Generar segunda ronda pero mantener el sistema en la ronda 1
-            List<Enfrentamiento> segundaRonda = generarRondaEspecifica(2);
+            List<Enfrentamiento> segundaRonda = generarRondaEspecifica(torneo, 2);
             todasLasRondas.addAll(segundaRonda);
 
             log.info("Generadas las dos primeras rondas: {} enfrentamientos en total. El sistema permanecerá en la ronda 1 hasta completarla.", todasLasRondas.size());
             return todasLasRondas;
+        } finally {
+            cerrojo.unlock();
         }
     }
     
     // Generar emparejamientos para la siguiente ronda
     @Transactional
-    public List<Enfrentamiento> generarSiguienteRonda() {
-        synchronized (generacionLock) {
-            List<Pareja> parejasActivas = parejaRepository.findParejasActivasWithRivales();
+    @Timed(value = "torneo.ronda.generacion", extraTags = {"tipo", "siguiente"}, description = "Generación de rondas (bloqueo, emparejamiento y persistencia)")
+    public List<Enfrentamiento> generarSiguienteRonda(Long torneoId) {
+        ReentrantLock cerrojo = cerrojoGeneracion(torneoId);
+        cerrojo.lock();
+        try {
+            // Bloquear la fila del torneo hasta el commit (cerrojo entre instancias, también en H2)
+            Torneo torneo = torneoRepository.bloquearTorneo(torneoId);
+            List<Pareja> parejasActivas = parejaRepository.findParejasActivas(torneo);
 
-            log.info("Generando siguiente ronda. Parejas activas detectadas: {}", parejasActivas.size());
+            log.info("Generando siguiente ronda del torneo {}. Parejas activas detectadas: {}", torneoId, parejasActivas.size());
 
             if (parejasActivas.size() < 2) {
                 throw new RuntimeException("No hay suficientes parejas activas para generar una ronda");
             }
 
-            int rondaActual = getRondaActual();
+            int rondaActual = torneo.getRondaActual();
             int nuevaRonda = rondaActual + 1;
             log.info("Ronda actual: {}, nueva ronda: {}", rondaActual, nuevaRonda);
 
-            // Anti-duplicados: si ya existen enfrentamientos para la nueva ronda, devolverlos
-            List<Enfrentamiento> existentes = enfrentamientoRepository.findByRondaOrderById(nuevaRonda);
+            // Doble envío: puedeGenerarNuevaRonda se comprueba antes del bloqueo, así que otra petición (u otra
+            // instancia) puede haber generado la ronda mientras esta esperaba. Con la ronda actual aún por jugar
+            // no se genera otra: se devuelve la que ya hay.
+            if (rondaActual > 0 && (rondaEnJuego(torneo) != rondaActual
+                    || enfrentamientoRepository.existsByTorneoAndRondaAndJugadoFalse(torneo, rondaActual))) {
+                log.warn("La ronda {} tiene enfrentamientos pendientes. Se omite nueva generación.", rondaActual);
+                return enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, rondaActual).stream()
+                        .filter(e -> !e.isDescanso())
+                        .collect(Collectors.toList());
+            }
+
+            // Anti-duplicados: si ya existen enfrentamientos para la nueva ronda, devolverlos (y alinear el contador)
+            List<Enfrentamiento> existentes = enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, nuevaRonda);
             if (!existentes.isEmpty()) {
                 log.warn("Ya existen {} enfrentamientos para la ronda {}. Se omite nueva generación.", existentes.size(), nuevaRonda);
+                torneo.avanzarARonda(nuevaRonda);
+                torneoRepository.save(torneo);
                 return existentes;
             }
         
-        // Mezclar aleatoriamente las parejas para esta ronda con semilla basada en la ronda
-        randomGenerator.setSeed(System.currentTimeMillis() + nuevaRonda);
-        java.util.Collections.shuffle(parejasActivas, randomGenerator);
-        log.info("Parejas mezcladas aleatoriamente para la ronda {} con semilla {}", nuevaRonda, System.currentTimeMillis() + nuevaRonda);
+        // Mezclar las parejas con el azar propio de esta ronda (semilla del torneo + número de ronda), partiendo
+        // de un orden fijo para que la ronda se pueda reproducir
+        SplittableRandom random = AleatorioRonda.para(torneo.getSemilla(), nuevaRonda);
+        parejasActivas.sort(Comparator.comparing(Pareja::getId));
+        AleatorioRonda.mezclar(parejasActivas, random);
+        log.info("Parejas mezcladas aleatoriamente para la ronda {} (semilla del torneo {})", nuevaRonda, torneo.getSemilla());
         
         // Si es impar el número de parejas, una descansa: elegir aleatoriamente entre las que tienen menos descansos
-        if (parejasActivas.size() % 2 == 1) {
-            parejasActivas.sort(java.util.Comparator.comparingInt(Pareja::getDescansos).thenComparing(Pareja::getNombre));
-            
-            // Encontrar el mínimo número de descansos
-            int minDescansos = parejasActivas.get(0).getDescansos();
-            
-            // Filtrar parejas con el mínimo número de descansos
-            List<Pareja> candidatosDescanso = parejasActivas.stream()
-                    .filter(p -> p.getDescansos() == minDescansos)
-                    .collect(Collectors.toList());
-            
-            // Seleccionar aleatoriamente entre los candidatos
-            int indiceAleatorio = randomGenerator.nextInt(candidatosDescanso.size());
-            Pareja queDescansa = candidatosDescanso.get(indiceAleatorio);
-            
+        Pareja queDescansa = SeleccionDescanso.elegir(parejasActivas, random);
+        if (queDescansa != null) {
             // Remover la pareja seleccionada de la lista principal
             parejasActivas.remove(queDescansa);
             
@@ -144,42 +341,44 @@ public class TorneoService {
             Enfrentamiento descanso = new Enfrentamiento(queDescansa, queDescansa, nuevaRonda);
             descanso.setJugado(true);
             enfrentamientoRepository.save(descanso);
-            log.info("Descansa esta ronda: {} (descansos acumulados: {}) - seleccionada aleatoriamente entre {} candidatos", 
-                    queDescansa.getNombre(), queDescansa.getDescansos(), candidatosDescanso.size());
+            log.info("Descansa esta ronda: {} (descansos acumulados: {})", queDescansa.getNombre(), queDescansa.getDescansos());
         }
         
-        // Backtracking: intentar sin repeticiones, si no es posible, permitirlas solo cuando sea necesario
-        List<Pareja> parejasDisponibles = new ArrayList<>(parejasActivas);
-        List<Enfrentamiento> enfrentamientos = new ArrayList<>();
-        boolean exitoSinRepetir = intentarEmparejarRecursivo(parejasDisponibles, nuevaRonda, enfrentamientos, false);
-        if (!exitoSinRepetir) {
-            enfrentamientos.clear();
-            parejasDisponibles = new ArrayList<>(parejasActivas);
-            intentarEmparejarRecursivo(parejasDisponibles, nuevaRonda, enfrentamientos, true);
-        }
-            // Persistir enfrentamientos
-            List<Enfrentamiento> guardados = new ArrayList<>();
-            for (Enfrentamiento e : enfrentamientos) {
-                Enfrentamiento g = enfrentamientoRepository.save(e);
-                guardados.add(g);
+        // Cargar el historial de enfrentamientos una sola vez: la búsqueda no lanza consultas a BD
+        HistorialEnfrentamientos historial = cargarHistorial(torneo, parejasActivas);
+        List<Enfrentamiento> enfrentamientos = emparejar(parejasActivas, nuevaRonda, historial, random);
+            // Persistir enfrentamientos en lote (una o pocas idas y vueltas a la BD) y recargarlos con sus ids
+            cacheEstadoTorneo.invalidar(torneo.getId());
+            enfrentamientoRepository.insertarEnLote(enfrentamientos);
+            List<Enfrentamiento> guardados = enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, nuevaRonda).stream()
+                    .filter(e -> !e.isDescanso())
+                    .collect(Collectors.toList());
+            for (Enfrentamiento e : guardados) {
                 log.debug("Emparejadas: {} vs {} en ronda {}", e.getPareja1().getNombre(), e.getPareja2().getNombre(), nuevaRonda);
             }
+            torneo.avanzarARonda(nuevaRonda);
+            torneoRepository.save(torneo);
+            eventosTorneo.publicar(torneo.getId(), "ronda", Map.of("ronda", nuevaRonda, "enfrentamientos", guardados.size()));
             log.info("Total enfrentamientos generados: {}", guardados.size());
             return guardados;
+        } finally {
+            cerrojo.unlock();
         }
     }
     
     // Generar una ronda específica sin cambiar la ronda actual del sistema
-    private List<Enfrentamiento> generarRondaEspecifica(int numeroRonda) {
-        synchronized (generacionLock) {
+    private List<Enfrentamiento> generarRondaEspecifica(Torneo torneo, int numeroRonda) {
+        ReentrantLock cerrojo = cerrojoGeneracion(torneo.getId());
+        cerrojo.lock();
+        try {
             // Anti-duplicados: si ya existen enfrentamientos para esa ronda, devolverlos
-            List<Enfrentamiento> existentes = enfrentamientoRepository.findByRondaOrderById(numeroRonda);
+            List<Enfrentamiento> existentes = enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, numeroRonda);
             if (!existentes.isEmpty()) {
                 log.warn("Ya existen {} enfrentamientos para la ronda {}. Se omite nueva generación específica.", existentes.size(), numeroRonda);
                 return existentes;
             }
 
-            List<Pareja> parejasActivas = parejaRepository.findParejasActivasWithRivales();
+            List<Pareja> parejasActivas = parejaRepository.findParejasActivas(torneo);
 
             if (parejasActivas.size() < 2) {
                 throw new RuntimeException("No hay suficientes parejas activas para generar la ronda " + numeroRonda);
@@ -187,27 +386,16 @@ public class TorneoService {
 
             log.info("Generando ronda específica {}. Parejas activas detectadas: {}", numeroRonda, parejasActivas.size());
         
-        // Mezclar aleatoriamente las parejas para esta ronda específica con semilla basada en la ronda
-        randomGenerator.setSeed(System.currentTimeMillis() + numeroRonda);
-        java.util.Collections.shuffle(parejasActivas, randomGenerator);
-        log.info("Parejas mezcladas aleatoriamente para la ronda específica {} con semilla {}", numeroRonda, System.currentTimeMillis() + numeroRonda);
+        // Mezclar las parejas con el azar propio de esta ronda (semilla del torneo + número de ronda), partiendo
+        // de un orden fijo para que la ronda se pueda reproducir
+        SplittableRandom random = AleatorioRonda.para(torneo.getSemilla(), numeroRonda);
+        parejasActivas.sort(Comparator.comparing(Pareja::getId));
+        AleatorioRonda.mezclar(parejasActivas, random);
+        log.info("Parejas mezcladas aleatoriamente para la ronda específica {} (semilla del torneo {})", numeroRonda, torneo.getSemilla());
         
         // Si es impar el número de parejas, una descansa: elegir aleatoriamente entre las que tienen menos descansos
-        if (parejasActivas.size() % 2 == 1) {
-            parejasActivas.sort(java.util.Comparator.comparingInt(Pareja::getDescansos).thenComparing(Pareja::getNombre));
-            
-            // Encontrar el mínimo número de descansos
-            int minDescansos = parejasActivas.get(0).getDescansos();
-            
-            // Filtrar parejas con el mínimo número de descansos
-            List<Pareja> candidatosDescanso = parejasActivas.stream()
-                    .filter(p -> p.getDescansos() == minDescansos)
-                    .collect(Collectors.toList());
-            
-            // Seleccionar aleatoriamente entre los candidatos
-            int indiceAleatorio = randomGenerator.nextInt(candidatosDescanso.size());
-            Pareja queDescansa = candidatosDescanso.get(indiceAleatorio);
-            
+        Pareja queDescansa = SeleccionDescanso.elegir(parejasActivas, random);
+        if (queDescansa != null) {
             // Remover la pareja seleccionada de la lista principal
             parejasActivas.remove(queDescansa);
             
@@ -217,169 +405,75 @@ public class TorneoService {
             Enfrentamiento descanso = new Enfrentamiento(queDescansa, queDescansa, numeroRonda);
             descanso.setJugado(true);
             enfrentamientoRepository.save(descanso);
-            log.info("Descansa esta ronda: {} (descansos acumulados: {}) - seleccionada aleatoriamente entre {} candidatos", 
-                    queDescansa.getNombre(), queDescansa.getDescansos(), candidatosDescanso.size());
+            log.info("Descansa esta ronda: {} (descansos acumulados: {})", queDescansa.getNombre(), queDescansa.getDescansos());
         }
         
-        // Backtracking: intentar sin repeticiones, si no es posible, permitirlas solo cuando sea necesario
-        List<Pareja> parejasDisponibles = new ArrayList<>(parejasActivas);
-        List<Enfrentamiento> enfrentamientos = new ArrayList<>();
-        boolean exitoSinRepetir = intentarEmparejarRecursivo(parejasDisponibles, numeroRonda, enfrentamientos, false);
-        if (!exitoSinRepetir) {
-            enfrentamientos.clear();
-            parejasDisponibles = new ArrayList<>(parejasActivas);
-            intentarEmparejarRecursivo(parejasDisponibles, numeroRonda, enfrentamientos, true);
-        }
-            // Persistir enfrentamientos
-            List<Enfrentamiento> guardados = new ArrayList<>();
-            for (Enfrentamiento e : enfrentamientos) {
-                Enfrentamiento g = enfrentamientoRepository.save(e);
-                guardados.add(g);
+        // Cargar el historial de enfrentamientos una sola vez: la búsqueda no lanza consultas a BD
+        HistorialEnfrentamientos historial = cargarHistorial(torneo, parejasActivas);
+        List<Enfrentamiento> enfrentamientos = emparejar(parejasActivas, numeroRonda, historial, random);
+            // Persistir enfrentamientos en lote (una o pocas idas y vueltas a la BD) y recargarlos con sus ids
+            cacheEstadoTorneo.invalidar(torneo.getId());
+            enfrentamientoRepository.insertarEnLote(enfrentamientos);
+            List<Enfrentamiento> guardados = enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, numeroRonda).stream()
+                    .filter(e -> !e.isDescanso())
+                    .collect(Collectors.toList());
+            for (Enfrentamiento e : guardados) {
                 log.debug("Emparejadas: {} vs {} en ronda {}", e.getPareja1().getNombre(), e.getPareja2().getNombre(), numeroRonda);
             }
+            torneo.avanzarARonda(numeroRonda);
+            torneoRepository.save(torneo);
+            eventosTorneo.publicar(torneo.getId(), "ronda", Map.of("ronda", numeroRonda, "enfrentamientos", guardados.size()));
             log.info("Total enfrentamientos generados para ronda {}: {}", numeroRonda, guardados.size());
             return guardados;
+        } finally {
+            cerrojo.unlock();
         }
     }
     
-    // Encontrar el mejor rival para una pareja
-    private Pareja encontrarMejorRival(Pareja pareja, List<Pareja> candidatos, int ronda) {
-        if (candidatos.isEmpty()) {
-            return null;
-        }
-        
-        // Priorizar parejas que no han jugado contra esta (verificar en BD, no en lista de rivales)
-        List<Pareja> noJugadas = candidatos.stream()
-                .filter(c -> !yaSeHanEnfrentado(pareja.getId(), c.getId()))
-                .collect(Collectors.toList());
-        
-        log.debug("Para pareja {}, candidatos totales: {}, no jugados: {}", 
-                pareja.getNombre(), candidatos.size(), noJugadas.size());
-        
-        if (!noJugadas.isEmpty()) {
-            // Si hay varias opciones, elegir la que menos veces ha jugado en rondas recientes
-            return encontrarParejaMenosActiva(noJugadas);
-        }
-        
-        // Si todas han jugado, verificar si hay alguna que no haya jugado en la ronda anterior
-        List<Pareja> noJugadasRondaAnterior = candidatos.stream()
-                .filter(c -> !haJugadoEnRondaAnterior(c, ronda))
-                .collect(Collectors.toList());
-        
-        if (!noJugadasRondaAnterior.isEmpty()) {
-            return encontrarParejaMenosActiva(noJugadasRondaAnterior);
-        }
-        
-        // Si todas han jugado y todas jugaron en la ronda anterior, tomar la que menos veces ha jugado en rondas recientes
-        return encontrarParejaMenosActiva(candidatos);
-    }
-    
-    // Encontrar un rival alternativo cuando se detecta un duplicado
-    private Pareja encontrarRivalAlternativo(Pareja pareja, List<Pareja> candidatos, int ronda) {
-        if (candidatos.isEmpty()) {
-            return null;
-        }
-        
-        // Filtrar solo parejas que no se han enfrentado a esta
-        List<Pareja> noEnfrentadas = candidatos.stream()
-                .filter(c -> !yaSeHanEnfrentado(pareja.getId(), c.getId()))
-                .collect(Collectors.toList());
-        
-        if (!noEnfrentadas.isEmpty()) {
-            // Si hay opciones, elegir la que menos veces ha jugado en rondas recientes
-            return encontrarParejaMenosActiva(noEnfrentadas);
-        }
-        
-        // Si todas se han enfrentado, devolver null (no hay alternativa)
-        log.warn("Todas las parejas disponibles ya se han enfrentado a {}", pareja.getNombre());
-        return null;
-    }
-    
-    // Verificar si dos parejas ya se han enfrentado en alguna ronda anterior
-    private boolean yaSeHanEnfrentado(Long pareja1Id, Long pareja2Id) {
-        try {
-            // Buscar si existe algún enfrentamiento entre estas dos parejas
-            Pareja pareja1 = parejaRepository.findById(pareja1Id).orElse(null);
-            Pareja pareja2 = parejaRepository.findById(pareja2Id).orElse(null);
-            
-            if (pareja1 == null || pareja2 == null) {
-                return false;
-            }
-            
-            List<Enfrentamiento> enfrentamientosPrevios = enfrentamientoRepository.findByParejas(pareja1, pareja2);
-            return !enfrentamientosPrevios.isEmpty();
-        } catch (Exception e) {
-            log.warn("Error al verificar si parejas {} y {} ya se enfrentaron: {}", pareja1Id, pareja2Id, e.getMessage());
-            return false; // En caso de error, asumir que no se han enfrentado
-        }
+    // Ejecutar la estrategia de emparejamiento midiendo solo el algoritmo (sin consultas ni escrituras)
+    private List<Enfrentamiento> emparejar(List<Pareja> parejas, int ronda, HistorialEnfrentamientos historial, RandomGenerator random) {
+        Timer timer = Timer.builder("torneo.emparejamiento")
+                .description("Tiempo del algoritmo de emparejamiento")
+                .tag("estrategia", estrategiaEmparejamiento.getClass().getSimpleName())
+                .register(meterRegistry);
+        return timer.record(() -> estrategiaEmparejamiento.emparejar(parejas, ronda, historial, random));
     }
-    
-    // Verificar si una pareja jugó en la ronda anterior
-    private boolean haJugadoEnRondaAnterior(Pareja pareja, int rondaActual) {
-        if (rondaActual <= 1) {
-            return false; // No hay ronda anterior
-        }
-        
-        try {
-            int enfrentamientosRondaAnterior = enfrentamientoRepository.countEnfrentamientosEnRonda(pareja.getId(), rondaActual - 1);
-            return enfrentamientosRondaAnterior > 0;
-        } catch (Exception e) {
-            log.warn("Error al verificar si pareja {} jugó en ronda anterior: {}", pareja.getNombre(), e.getMessage());
-            return false;
-        }
+
+    // Cargar en memoria el historial de enfrentamientos para las parejas indicadas
+    private HistorialEnfrentamientos cargarHistorial(Torneo torneo, List<Pareja> parejas) {
+        List<Long> ids = parejas.stream().map(Pareja::getId).collect(Collectors.toList());
+        HistorialEnfrentamientos historial = new HistorialEnfrentamientos(ids, enfrentamientoRepository.findResumenEnfrentamientos(torneo));
+        log.debug("Historial de enfrentamientos cargado para {} parejas", ids.size());
+        return historial;
     }
     
-    // Encontrar la pareja que menos veces ha jugado en rondas recientes
-    private Pareja encontrarParejaMenosActiva(List<Pareja> candidatos) {
-        if (candidatos.isEmpty()) {
-            return null;
-        }
-        
-        // Si solo hay un candidato, devolverlo directamente
-        if (candidatos.size() == 1) {
-            return candidatos.get(0);
-        }
-        
-        // Obtener el número de enfrentamientos jugados en las últimas 2 rondas para cada candidato
-        Map<Pareja, Integer> enfrentamientosRecientes = new HashMap<>();
-        
-        for (Pareja candidato : candidatos) {
+    // Registrar o editar el resultado de un enfrentamiento. Sin cerrojos: si otra petición ha modificado a la vez
+    // el enfrentamiento o alguna de sus parejas (@Version), la transacción se deshace y se repite con datos frescos.
+    // Lo mismo si la base de datos la elige para deshacer un interbloqueo: la versión del torneo se sube al final
+    // (ver CacheEstadoTorneo.invalidar), después de las parejas, al revés que en la generación de rondas
+    @Timed(value = "torneo.resultado.registro", description = "Registro de un resultado, reintentos incluidos")
+    public void registrarResultado(Long torneoId, Long enfrentamientoId, Long ganadorId) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        for (int intento = 1; ; intento++) {
             try {
-                int enfrentamientosRecientesCount = enfrentamientoRepository.countEnfrentamientosRecientes(candidato.getId());
-                enfrentamientosRecientes.put(candidato, enfrentamientosRecientesCount);
-            } catch (Exception e) {
-                // Si hay algún error, asumir 0 enfrentamientos recientes
-                enfrentamientosRecientes.put(candidato, 0);
-                log.warn("Error al contar enfrentamientos recientes para pareja {}: {}", candidato.getNombre(), e.getMessage());
+                transaccion.executeWithoutResult(status -> aplicarResultado(torneoId, enfrentamientoId, ganadorId));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("torneo.resultado.conflictos").increment();
+                if (intento >= MAX_INTENTOS_RESULTADO) {
+                    throw new RuntimeException("El resultado se ha modificado a la vez desde otra mesa, inténtalo de nuevo");
+                }
+                log.info("Conflicto de concurrencia al registrar el resultado {} (intento {}), reintentando", enfrentamientoId, intento);
             }
         }
-        
-        // Encontrar el mínimo número de enfrentamientos recientes
-        int minEnfrentamientos = enfrentamientosRecientes.values().stream()
-                .mapToInt(Integer::intValue)
-                .min()
-                .orElse(0);
-        
-        // Filtrar candidatos con el mínimo número de enfrentamientos recientes
-        List<Pareja> candidatosConMinimo = candidatos.stream()
-                .filter(p -> enfrentamientosRecientes.getOrDefault(p, 0) == minEnfrentamientos)
-                .collect(Collectors.toList());
-        
-        // Si hay múltiples candidatos con el mismo mínimo, seleccionar uno aleatoriamente
-        if (candidatosConMinimo.size() > 1) {
-            int indiceAleatorio = randomGenerator.nextInt(candidatosConMinimo.size());
-            return candidatosConMinimo.get(indiceAleatorio);
-        }
-        
-        // Si solo hay uno, devolverlo
-        return candidatosConMinimo.get(0);
     }
     
-    // Registrar o editar el resultado de un enfrentamiento
-    @Transactional
-    public void registrarResultado(Long enfrentamientoId, Long ganadorId) {
-        Enfrentamiento enfrentamiento = enfrentamientoRepository.findById(enfrentamientoId)
-                .orElseThrow(() -> new RuntimeException("Enfrentamiento no encontrado"));
+    private void aplicarResultado(Long torneoId, Long enfrentamientoId, Long ganadorId) {
+        Enfrentamiento enfrentamiento = enfrentamientoRepository.findConParejasById(enfrentamientoId)
+                .orElseThrow(() -> new NoEncontradoException("Enfrentamiento no encontrado"));
+        if (!enfrentamiento.perteneceATorneo(torneoId)) {
+            throw new RuntimeException("El enfrentamiento no pertenece a este torneo");
+        }
 
         // No permitir operar sobre descansos
         boolean esDescanso = false;
@@ -391,7 +485,7 @@ public class TorneoService {
         }
 
         Pareja nuevoGanador = parejaRepository.findById(ganadorId)
-                .orElseThrow(() -> new RuntimeException("Pareja ganadora no encontrada"));
+                .orElseThrow(() -> new NoEncontradoException("Pareja ganadora no encontrada"));
 
         if (!enfrentamiento.involucraPareja(nuevoGanador)) {
             throw new RuntimeException("La pareja ganadora no participa en este enfrentamiento");
@@ -403,170 +497,126 @@ public class TorneoService {
             return;
         }
 
-        // Deshacer efecto anterior si existía
+        // Anotar el resultado en el registro (precedido de la anulación del anterior, si lo había) y aplicarlo:
+        // solo cambian este enfrentamiento y las derrotas de los perdedores afectados
+        cacheEstadoTorneo.invalidar(torneoId);
         if (ganadorAnterior != null) {
-            Pareja perdedorAnterior = ganadorAnterior.equals(enfrentamiento.getPareja1())
-                    ? enfrentamiento.getPareja2() : enfrentamiento.getPareja1();
-            if (perdedorAnterior != null) {
-                int derrotas = Math.max(0, perdedorAnterior.getDerrotas() - 1);
-                perdedorAnterior.setDerrotas(derrotas);
-                if (derrotas < 2) {
-                    perdedorAnterior.setEliminada(false);
-                }
-                parejaRepository.save(perdedorAnterior);
-            }
-        }
-
-        // Aplicar nuevo ganador
-        enfrentamiento.setGanador(nuevoGanador);
-        enfrentamiento.setJugado(true);
-        enfrentamientoRepository.save(enfrentamiento);
-        
-        // Actualizar rivales jugados cuando se registra el resultado
-        Pareja pareja1 = enfrentamiento.getPareja1();
-        Pareja pareja2 = enfrentamiento.getPareja2();
-        if (pareja1 != null && pareja2 != null) {
-            pareja1.agregarRival(pareja2.getNombre());
-            pareja2.agregarRival(pareja1.getNombre());
-            parejaRepository.save(pareja1);
-            parejaRepository.save(pareja2);
-            log.info("Rivales actualizados: {} y {} se han enfrentado", pareja1.getNombre(), pareja2.getNombre());
-        }
-
-        // Aplicar derrota al nuevo perdedor
-        Pareja nuevoPerdedor = nuevoGanador.equals(enfrentamiento.getPareja1())
-                ? enfrentamiento.getPareja2() : enfrentamiento.getPareja1();
-        if (nuevoPerdedor != null) {
-            nuevoPerdedor.agregarDerrota();
-            int rondaDeEsteEnfrentamiento = enfrentamiento.getRonda();
-            int rondaActual = getRondaActual();
-            
-            // Lógica mejorada de eliminación
-            if (nuevoPerdedor.getDerrotas() >= 2) {
-                // Si ya tenemos 2 o más derrotas, verificar si debemos eliminar
-                if (rondaDeEsteEnfrentamiento >= 3) {
-                    // En rondas 3+ siempre eliminamos con 2 derrotas
-                    nuevoPerdedor.setEliminada(true);
-                    log.info("Pareja {} eliminada automáticamente en ronda {} (2 derrotas)", 
-                            nuevoPerdedor.getNombre(), rondaDeEsteEnfrentamiento);
-                } else if (rondaActual >= 2) {
-                    // Si ya estamos en ronda 2 o superior, y la pareja tiene 2 derrotas,
-                    // la eliminamos automáticamente (independientemente de en qué ronda fue la derrota)
-                    nuevoPerdedor.setEliminada(true);
-                    log.info("Pareja {} eliminada automáticamente (2 derrotas, torneo en ronda {})", 
-                            nuevoPerdedor.getNombre(), rondaActual);
-                } else {
-                    // En ronda 1 con 2 derrotas, no eliminamos automáticamente
-                    nuevoPerdedor.setEliminada(false);
-                    log.info("Pareja {} con 2 derrotas en ronda 1, no eliminada automáticamente", 
-                            nuevoPerdedor.getNombre());
-                }
-            } else {
-                // Con menos de 2 derrotas, asegurar que no esté eliminada
-                nuevoPerdedor.setEliminada(false);
-            }
-            
-            parejaRepository.save(nuevoPerdedor);
-        }
+            // Corrección: la ronda puede estar ya renderizada en el historial
+            cacheHistorialRondas.invalidar(torneoId);
+        }
+        registroResultados.registrar(enfrentamiento, nuevoGanador);
+
+        // (Pareja mantiene el invariante eliminada == derrotas >= 2; una pareja solo juega un partido
+        // por ronda, así que la segunda derrota nunca llega antes de la ronda 2)
+        Pareja nuevoPerdedor = enfrentamiento.getRival(nuevoGanador);
+        if (nuevoPerdedor != null && nuevoPerdedor.isEliminada()) {
+            log.info("Pareja {} eliminada automáticamente en ronda {} ({} derrotas)", 
+                    nuevoPerdedor.getNombre(), enfrentamiento.getRonda(), nuevoPerdedor.getDerrotas());
+        }
+        actualizarFaseTorneo(obtenerTorneo(torneoId));
+        publicarResultado(torneoId, enfrentamiento, ganadorAnterior == null);
+        // Volcar aquí para que un conflicto de versión salte dentro de la transacción y se reintente
+        parejaRepository.flush();
     }
 
-    // Emparejador por backtracking: prioriza no repetir; si permitirRepetidos=true, permite repetir solo cuando es necesario
-    private boolean intentarEmparejarRecursivo(List<Pareja> disponibles, int ronda, List<Enfrentamiento> salida, boolean permitirRepetidos) {
-        if (disponibles.size() < 2) {
-            return true;
-        }
-
-        // Elegir una pareja al azar para repartir mejor
-        int indice = seleccionarIndiceAleatorio(disponibles.size());
-        Pareja p1 = disponibles.remove(indice);
-
-        // Candidatos preferentes: no repetidos
-        List<Pareja> candidatosNoRepetidos = disponibles.stream()
-                .filter(p2 -> !yaSeHanEnfrentado(p1.getId(), p2.getId()))
-                .collect(Collectors.toList());
-
-        // Si no hay candidatos no repetidos y no podemos repetir aún
-        if (candidatosNoRepetidos.isEmpty() && !permitirRepetidos) {
-            // Backtrack
-            disponibles.add(p1);
-            return false;
-        }
-
-        // Construir lista de intentos: primero no repetidos, si se permite repetir y no hay opción, usar todos
-        List<Pareja> intentos = !candidatosNoRepetidos.isEmpty() ? candidatosNoRepetidos : (permitirRepetidos ? new ArrayList<>(disponibles) : new ArrayList<>());
-
-        // Heurística: ordenar por el número de opciones que dejaría al resto (menor primero)
-        intentos.sort((a, b) -> {
-            int restA = (int) disponibles.stream().filter(x -> !x.getId().equals(a.getId())).filter(x -> !yaSeHanEnfrentado(x.getId(), p1.getId())).count();
-            int restB = (int) disponibles.stream().filter(x -> !x.getId().equals(b.getId())).filter(x -> !yaSeHanEnfrentado(x.getId(), p1.getId())).count();
-            return Integer.compare(restA, restB);
-        });
-
-        for (Pareja p2 : intentos) {
-            disponibles.remove(p2);
-            Enfrentamiento enf = new Enfrentamiento(p1, p2, ronda);
-            salida.add(enf);
-            boolean ok = intentarEmparejarRecursivo(disponibles, ronda, salida, permitirRepetidos);
-            if (ok) {
-                // Persistencia diferida en el caller
-                return true;
-            }
-            // Backtrack
-            salida.remove(salida.size() - 1);
-            disponibles.add(p2);
-        }
-
-        // No hubo forma; devolver p1
-        disponibles.add(p1);
-        return false;
+    // Evento compacto para los navegadores abiertos: qué partido, quién ganó y cómo queda el perdedor
+    private void publicarResultado(Long torneoId, Enfrentamiento enfrentamiento, boolean primerResultado) {
+        Pareja ganador = enfrentamiento.getGanador();
+        Pareja perdedor = enfrentamiento.getPerdedor();
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("enfrentamiento", enfrentamiento.getId());
+        datos.put("ronda", enfrentamiento.getRonda());
+        datos.put("primerResultado", primerResultado);
+        datos.put("ganador", Map.of("id", ganador.getId(), "nombre", ganador.getNombre()));
+        if (perdedor != null) {
+            datos.put("perdedor", Map.of("id", perdedor.getId(), "nombre", perdedor.getNombre(),
+                    "derrotas", perdedor.getDerrotas(), "eliminada", perdedor.isEliminada()));
+        }
+        eventosTorneo.publicar(torneoId, "resultado", datos);
     }
 
     // Obtener enfrentamiento por id
     public Enfrentamiento getEnfrentamiento(Long id) {
-        return enfrentamientoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Enfrentamiento no encontrado"));
+        return enfrentamientoRepository.findConParejasById(id)
+                .orElseThrow(() -> new NoEncontradoException("Enfrentamiento no encontrado"));
     }
     
-    // Obtener el estado actual del torneo
-    public Map<String, Object> obtenerEstadoTorneo() {
-        Map<String, Object> estado = new HashMap<>();
-        
-        // Verificar y corregir el estado de eliminación si es necesario
-        verificarEliminacionParejas();
-        
-        // Usar fetch join para evitar LazyInitializationException
-        List<Pareja> activasPorDerrotas = parejaRepository.findParejasActivasWithRivales();
-        List<Pareja> eliminadas = parejaRepository.findParejasEliminadasWithRivales();
-        long totalParejas = parejaRepository.count();
-        long activasPorFlag = parejaRepository.countParejasActivas();
-        int rondaActual = getRondaActual();
-        List<Enfrentamiento> enfrentamientosActuales = getEnfrentamientosRondaActual();
-        
-        // Determinar la ronda que se debe mostrar en la UI
-        int rondaAMostrar = rondaActual;
-        if (rondaActual == 2) {
-            // Si estamos en ronda 2 pero hay pendientes en ronda 1, mostrar ronda 1
-            List<Enfrentamiento> enfrentamientosRonda1 = enfrentamientoRepository.findByRondaOrderById(1);
-            boolean hayPendientesRonda1 = enfrentamientosRonda1.stream().anyMatch(e -> !e.isJugado());
-            if (hayPendientesRonda1) {
-                rondaAMostrar = 1;
-            }
-        }
-        
-        int pendientesRondaActual = (rondaActual == 0) ? 0 : enfrentamientoRepository.findByRondaAndJugadoFalse(rondaAMostrar).size();
-        boolean puedeGenerarNuevaRonda = puedeGenerarNuevaRonda();
-        
-        estado.put("parejasActivas", activasPorDerrotas);
-        estado.put("parejasEliminadas", eliminadas);
-        estado.put("rondaActual", rondaActual);
-        estado.put("rondaAMostrar", rondaAMostrar);
-        estado.put("enfrentamientosActuales", enfrentamientosActuales);
-        estado.put("totalParejas", totalParejas);
-        estado.put("parejasActivasCount", activasPorFlag);
-        estado.put("pendientesRondaActual", pendientesRondaActual);
-        estado.put("puedeGenerarNuevaRonda", puedeGenerarNuevaRonda);
-        estado.put("puedeGenerarPrimerasDosRondas", puedeGenerarPrimerasDosRondas());
-        estado.put("hayOrdenMezclado", false); // No hay orden mezclado manual
+    // Obtener un enfrentamiento de la ronda en juego del torneo (para el formulario de resultado), o null
+    public Enfrentamiento getEnfrentamientoRondaActual(Long torneoId, Long enfrentamientoId) {
+        Torneo torneo = obtenerTorneo(torneoId);
+        return enfrentamientoRepository.findConParejasById(enfrentamientoId)
+                .filter(e -> e.perteneceATorneo(torneoId))
+                .filter(e -> torneo.getRondaActual() > 0 && e.getRonda() == rondaEnJuego(torneo))
+                .orElse(null);
+    }
+    
+    // Ronda cuyos enfrentamientos se muestran y se juegan: la actual, salvo que estando en la ronda 2
+    // queden pendientes de la ronda 1 (se completan primero)
+    private int rondaEnJuego(Torneo torneo) {
+        int rondaActual = torneo.getRondaActual();
+        if (rondaActual == 2 && enfrentamientoRepository.existsByTorneoAndRondaAndJugadoFalse(torneo, 1)) {
+            return 1;
+        }
+        return rondaActual;
+    }
+    
+    // Obtener el estado actual del torneo (desde la cache: una lectura de la versión del torneo y, solo si alguien ha
+    // escrito desde la última foto, en esta instancia o en otra, las consultas de la foto).
+    // La foto se construye desde la primaria aunque haya réplica: con datos de una réplica retrasada se quedaría
+    // vieja en la cache hasta la siguiente escritura.
+    @Timed(value = "torneo.estado", description = "Obtención de la foto del estado del torneo (cache o BD)")
+    public EstadoTorneo obtenerEstadoTorneo(Long torneoId) {
+        return cacheEstadoTorneo.obtener(torneoId, () -> EnrutadorFuenteDatos.enPrimaria(() -> {
+            TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+            transaccion.setReadOnly(true);
+            return transaccion.execute(status -> construirEstadoTorneo(torneoId));
+        }));
+    }
+    
+    // Versión de los datos del torneo guardada en la base de datos: cambia con cada resultado, ronda o pareja nueva (sirve de ETag)
+    public String getVersionEstado(Long torneoId) {
+        return cacheEstadoTorneo.etiquetaVersion(torneoId);
+    }
+    
+    // Construir la foto del estado del torneo consultando la base de datos. Es una lectura pura: la coherencia
+    // de 'eliminada' la garantiza el camino de escritura y verificarEliminacionParejas queda como reparación manual
+    private EstadoTorneo construirEstadoTorneo(Long torneoId) {
+        // La versión va primero: las consultas siguientes ven sus escrituras o posteriores (en MySQL, la misma instantánea)
+        long version = torneoRepository.findVersionDatos(torneoId)
+                .orElseThrow(() -> new NoEncontradoException("Torneo no encontrado"));
+        Torneo torneo = obtenerTorneo(torneoId);
+        List<Pareja> activasPorDerrotas = parejaRepository.findParejasActivas(torneo);
+        List<Pareja> eliminadas = parejaRepository.findParejasEliminadas(torneo);
+        long totalParejas = parejaRepository.countByTorneo(torneo);
+        long activasPorFlag = parejaRepository.countParejasActivas(torneo);
+        int rondaActual = torneo.getRondaActual();
+        List<Enfrentamiento> enfrentamientosActuales = getEnfrentamientosRondaActual(torneoId);
+        
+        // Determinar la ronda que se debe mostrar en la UI (si estamos en ronda 2 pero hay pendientes en ronda 1, la 1)
+        int rondaAMostrar = rondaEnJuego(torneo);
+        
+        int pendientesRondaActual = (rondaActual == 0) ? 0 : (int) enfrentamientoRepository.countByTorneoAndRondaAndJugadoFalse(torneo, rondaAMostrar);
+        boolean puedeGenerarNuevaRonda = puedeGenerarNuevaRonda(torneoId);
+        boolean puedeGenerarPrimerasDosRondas = activasPorFlag >= 2 && rondaActual == 0;
+        boolean terminado = rondaActual > 0 && activasPorFlag <= 1;
+        Pareja ganadora = terminado && !activasPorDerrotas.isEmpty() ? activasPorDerrotas.get(0) : null;
+        
+        EstadoTorneo estado = new EstadoTorneo(
+                new EstadoTorneo.TorneoResumen(torneo),
+                getTorneos().stream().map(EstadoTorneo.TorneoResumen::new).collect(Collectors.toList()),
+                activasPorDerrotas.stream().map(EstadoTorneo.ParejaResumen::new).collect(Collectors.toList()),
+                eliminadas.stream().map(EstadoTorneo.ParejaResumen::new).collect(Collectors.toList()),
+                rondaActual,
+                rondaAMostrar,
+                enfrentamientosActuales.stream().map(EstadoTorneo.EnfrentamientoResumen::new).collect(Collectors.toList()),
+                totalParejas,
+                activasPorFlag,
+                pendientesRondaActual,
+                puedeGenerarNuevaRonda,
+                puedeGenerarPrimerasDosRondas,
+                terminado,
+                ganadora != null ? new EstadoTorneo.ParejaResumen(ganadora) : null,
+                version);
         
         log.debug("Estado torneo: totalParejas={}, activasPorDerrotas={}, activasPorFlag={}, rondaActual={}, pendientes={}",
                 totalParejas, activasPorDerrotas.size(), activasPorFlag, rondaActual, pendientesRondaActual);
@@ -574,105 +624,211 @@ public class TorneoService {
         return estado;
     }
 
-    public boolean puedeGenerarNuevaRonda() {
-        if (parejaRepository.countParejasActivas() < 2) {
+    public boolean puedeGenerarNuevaRonda(Long torneoId) {
+        Torneo torneo = obtenerTorneo(torneoId);
+        if (parejaRepository.countParejasActivas(torneo) < 2) {
             return false;
         }
-        int rondaActual = getRondaActual();
+        int rondaActual = torneo.getRondaActual();
         if (rondaActual == 0) {
             return true;
         }
         
         // Si estamos en la ronda 2, verificar que no haya pendientes en la ronda 1
-        if (rondaActual == 2) {
-            List<Enfrentamiento> enfrentamientosRonda1 = enfrentamientoRepository.findByRondaOrderById(1);
-            boolean hayPendientesRonda1 = enfrentamientosRonda1.stream().anyMatch(e -> !e.isJugado());
-            if (hayPendientesRonda1) {
-                return false; // No se puede generar nueva ronda si hay pendientes en ronda 1
-            }
+        if (rondaEnJuego(torneo) != rondaActual) {
+            return false; // No se puede generar nueva ronda si hay pendientes en ronda 1
         }
         
-        return enfrentamientoRepository.findByRondaAndJugadoFalse(rondaActual).isEmpty();
+        return !enfrentamientoRepository.existsByTorneoAndRondaAndJugadoFalse(torneo, rondaActual);
     }
     
-    public boolean puedeGenerarPrimerasDosRondas() {
-        if (parejaRepository.countParejasActivas() < 2) {
+    public boolean puedeGenerarPrimerasDosRondas(Long torneoId) {
+        Torneo torneo = obtenerTorneo(torneoId);
+        if (parejaRepository.countParejasActivas(torneo) < 2) {
             return false;
         }
-        int rondaActual = getRondaActual();
+        int rondaActual = torneo.getRondaActual();
         return rondaActual == 0; // Solo cuando no hay rondas generadas
     }
     
-    // Obtener la ronda actual
-    public int getRondaActual() {
-        Integer maxRonda = enfrentamientoRepository.findMaxRonda();
-        return maxRonda != null ? maxRonda : 0;
+    // Obtener la ronda actual (contador mantenido en la fila del torneo, no MAX(ronda))
+    public int getRondaActual(Long torneoId) {
+        return obtenerTorneo(torneoId).getRondaActual();
+    }
+    
+    // Obtener la fila del torneo: búsqueda por clave primaria que, dentro de la misma petición,
+    // resuelve la caché de primer nivel de JPA sin SQL.
+    private Torneo obtenerTorneo(Long torneoId) {
+        return torneoRepository.findById(torneoId)
+                .orElseThrow(() -> new NoEncontradoException("Torneo no encontrado"));
+    }
+    
+    // Preparar el torneo por defecto al arrancar: crearlo si no hay ninguno (partiendo de los enfrentamientos
+    // ya generados en bases de datos anteriores a los torneos múltiples) y asignarle las filas sin torneo
+    @Transactional
+    public Torneo inicializarTorneo() {
+        Torneo torneo = torneoRepository.findFirstByOrderByIdAsc().orElseGet(() -> {
+            Integer maxRonda = enfrentamientoRepository.findMaxRonda();
+            Torneo nuevo = new Torneo(Torneo.NOMBRE_POR_DEFECTO);
+            nuevo.avanzarARonda(maxRonda != null ? maxRonda : 0);
+            nuevo = torneoRepository.save(nuevo);
+            log.info("Creado torneo por defecto: {}", nuevo);
+            return nuevo;
+        });
+        if (torneo.getNombre() == null) {
+            torneo.setNombre(Torneo.NOMBRE_POR_DEFECTO);
+            torneoRepository.save(torneo);
+        }
+        int parejasAsignadas = parejaRepository.asignarTorneoAParejasSinTorneo(torneo);
+        int enfrentamientosAsignados = enfrentamientoRepository.asignarTorneoAEnfrentamientosSinTorneo(torneo);
+        if (parejasAsignadas > 0 || enfrentamientosAsignados > 0) {
+            log.info("Asignadas al torneo {} {} parejas y {} enfrentamientos sin torneo", torneo.getId(), parejasAsignadas, enfrentamientosAsignados);
+        }
+        if (enfrentamientosAsignados > 0) {
+            // La migración del registro de resultados no pudo incluirlos porque aún no tenían torneo
+            eventoResultadoRepository.anotarResultadosSinRegistro(torneo.getId());
+        }
+        if (torneo.getRondaActual() == 0) {
+            torneo.setEstado(Torneo.Estado.INSCRIPCION);
+        }
+        actualizarFaseTorneo(torneo);
+        torneoPorDefectoId = torneo.getId();
+        log.info("Estado del torneo por defecto al iniciar: {}", torneo);
+        return torneo;
+    }
+    
+    // Mantener EN_CURSO/FINALIZADO según las parejas activas que quedan
+    private void actualizarFaseTorneo(Torneo torneo) {
+        if (torneo.getRondaActual() == 0) {
+            return;
+        }
+        boolean terminado = parejaRepository.countParejasActivas(torneo) <= 1;
+        Torneo.Estado estado = terminado ? Torneo.Estado.FINALIZADO : Torneo.Estado.EN_CURSO;
+        if (torneo.getEstado() != estado) {
+            torneo.setEstado(estado);
+            torneoRepository.save(torneo);
+            log.info("Torneo pasa a estado {}", estado);
+        }
     }
     
     // Obtener enfrentamientos de la ronda actual
-    public List<Enfrentamiento> getEnfrentamientosRondaActual() {
-        int rondaActual = getRondaActual();
+    public List<Enfrentamiento> getEnfrentamientosRondaActual(Long torneoId) {
+        Torneo torneo = obtenerTorneo(torneoId);
+        int rondaActual = torneo.getRondaActual();
         if (rondaActual == 0) {
             return new ArrayList<>();
         }
         
         // Si estamos en la ronda 2 pero hay enfrentamientos pendientes en la ronda 1, 
         // mostrar los de la ronda 1 para que se completen primero
-        if (rondaActual == 2) {
-            List<Enfrentamiento> enfrentamientosRonda1 = enfrentamientoRepository.findByRondaOrderById(1);
-            boolean hayPendientesRonda1 = enfrentamientosRonda1.stream().anyMatch(e -> !e.isJugado());
-            if (hayPendientesRonda1) {
-                log.debug("Mostrando enfrentamientos de la ronda 1 ya que hay pendientes por completar");
-                return enfrentamientosRonda1;
-            }
-        }
-        
-        return enfrentamientoRepository.findByRondaOrderById(rondaActual);
+        return enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, rondaEnJuego(torneo));
     }
     
     // Verificar si el torneo ha terminado
-    public boolean torneoTerminado() {
-        long parejasActivas = parejaRepository.countParejasActivas();
-        int rondaActual = getRondaActual();
-        return rondaActual > 0 && parejasActivas <= 1;
+    public boolean torneoTerminado(Long torneoId) {
+        return obtenerTorneo(torneoId).isFinalizado();
     }
     
     // Obtener la pareja ganadora (si el torneo terminó)
-    public Pareja getParejaGanadora() {
-        if (!torneoTerminado()) {
+    public Pareja getParejaGanadora(Long torneoId) {
+        if (!torneoTerminado(torneoId)) {
             return null;
         }
         
-        List<Pareja> parejasActivas = parejaRepository.findParejasActivasWithRivales();
+        List<Pareja> parejasActivas = parejaRepository.findParejasActivas(obtenerTorneo(torneoId));
         return parejasActivas.isEmpty() ? null : parejasActivas.get(0);
     }
     
     // Obtener todas las parejas
-    public List<Pareja> getAllParejas() {
-        return parejaRepository.findAll();
+    public List<Pareja> getAllParejas(Long torneoId) {
+        return parejaRepository.findByTorneo(obtenerTorneo(torneoId));
+    }
+    
+    // Obtener parejas activas
+    public List<Pareja> getParejasActivas(Long torneoId) {
+        return parejaRepository.findParejasActivas(obtenerTorneo(torneoId));
+    }
+    
+    // Obtener parejas eliminadas
+    public List<Pareja> getParejasEliminadas(Long torneoId) {
+        return parejaRepository.findParejasEliminadas(obtenerTorneo(torneoId));
+    }
+    
+    // Una página de la clasificación precalculada, ya ordenada por la base de datos (pagina empieza en 1)
+    public Page<Pareja> getClasificacion(Long torneoId, int pagina, int parejasPorPagina) {
+        return parejaRepository.findClasificacion(obtenerTorneo(torneoId), PageRequest.of(Math.max(0, pagina - 1), parejasPorPagina));
+    }
+    
+    public long countParejasActivas(Long torneoId) {
+        return parejaRepository.countParejasActivas(obtenerTorneo(torneoId));
+    }
+    
+    // Rivales ya jugados por las parejas indicadas (id de pareja -> nombres de rivales en orden de ronda).
+    // Solo lee los enfrentamientos de esas parejas: la clasificación lo pide para una página cada vez.
+    public Map<Long, List<String>> getRivalesJugados(Collection<Long> parejaIds) {
+        Map<Long, List<String>> rivales = new HashMap<>();
+        if (parejaIds.isEmpty()) {
+            return rivales;
+        }
+        for (Object[] fila : enfrentamientoRepository.findRivalesDe(parejaIds)) {
+            agregarRival(rivales, (Long) fila[0], (String) fila[3]);
+            agregarRival(rivales, (Long) fila[2], (String) fila[1]);
+        }
+        return rivales;
+    }
+    
+    // Rivales ya jugados por cada pareja del torneo (id de pareja -> nombres de rivales en orden de ronda),
+    // deducidos de los enfrentamientos jugados con una sola consulta por índice
+    public Map<Long, List<String>> getRivalesJugados(Long torneoId) {
+        Torneo torneo = obtenerTorneo(torneoId);
+        Map<Long, String> nombres = new HashMap<>();
+        for (Pareja pareja : parejaRepository.findByTorneo(torneo)) {
+            nombres.put(pareja.getId(), pareja.getNombre());
+        }
+        Map<Long, List<String>> rivales = new HashMap<>();
+        for (Object[] par : enfrentamientoRepository.findParesJugados(torneo)) {
+            Long a = (Long) par[0];
+            Long b = (Long) par[1];
+            agregarRival(rivales, a, nombres.get(b));
+            agregarRival(rivales, b, nombres.get(a));
+        }
+        return rivales;
     }
     
-    // Obtener parejas activas con rivales (fetch join)
-    public List<Pareja> getParejasActivasWithRivales() {
-        return parejaRepository.findParejasActivasWithRivales();
+    private void agregarRival(Map<Long, List<String>> rivales, Long parejaId, String nombreRival) {
+        List<String> lista = rivales.computeIfAbsent(parejaId, id -> new ArrayList<>());
+        if (nombreRival != null && !lista.contains(nombreRival)) {
+            lista.add(nombreRival);
+        }
     }
     
-    // Obtener parejas eliminadas con rivales (fetch join)
-    public List<Pareja> getParejasEliminadasWithRivales() {
-        return parejaRepository.findParejasEliminadasWithRivales();
+    // Obtener el historial de las rondas [desde, hasta] agrupado por ronda (las rondas sin enfrentamientos
+    // aparecen con lista vacía) con una sola consulta
+    public Map<Integer, List<Enfrentamiento>> getHistorial(Long torneoId, int rondaDesde, int rondaHasta) {
+        Map<Integer, List<Enfrentamiento>> historial = new LinkedHashMap<>();
+        for (int ronda = rondaDesde; ronda <= rondaHasta; ronda++) {
+            historial.put(ronda, new ArrayList<>());
+        }
+        if (rondaDesde > rondaHasta) {
+            return historial;
+        }
+        for (Enfrentamiento e : enfrentamientoRepository.findHistorial(obtenerTorneo(torneoId), rondaDesde, rondaHasta)) {
+            historial.get(e.getRonda()).add(e);
+        }
+        return historial;
     }
     
     // Obtener enfrentamientos por ronda
-    public List<Enfrentamiento> getEnfrentamientosPorRonda(int ronda) {
-        return enfrentamientoRepository.findByRondaOrderById(ronda);
+    public List<Enfrentamiento> getEnfrentamientosPorRonda(Long torneoId, int ronda) {
+        return enfrentamientoRepository.findByTorneoAndRondaOrderById(obtenerTorneo(torneoId), ronda);
     }
     
     // Obtener enfrentamientos de una ronda específica con validación
-    public List<Enfrentamiento> getEnfrentamientosRondaEspecifica(int ronda) {
+    public List<Enfrentamiento> getEnfrentamientosRondaEspecifica(Long torneoId, int ronda) {
         if (ronda <= 0) {
             return new ArrayList<>();
         }
-        return enfrentamientoRepository.findByRondaOrderById(ronda);
+        return enfrentamientoRepository.findByTorneoAndRondaOrderById(obtenerTorneo(torneoId), ronda);
     }
     
     // Verificar si hay un orden mezclado disponible para la próxima ronda
@@ -680,52 +836,41 @@ public class TorneoService {
         return false; // No hay orden mezclado manual
     }
     
-    // Verificar y corregir el estado de eliminación de parejas
+    // Reparación manual (endpoint de administración): recalcular derrotas y eliminaciones de todas las parejas
+    // reproduciendo el registro de resultados. No se ejecuta en ninguna lectura.
     @Transactional
-    public void verificarEliminacionParejas() {
-        int rondaActual = getRondaActual();
-        if (rondaActual < 2) {
-            return; // Solo verificar cuando estemos en ronda 2 o superior
-        }
-        
-        List<Pareja> todasLasParejas = parejaRepository.findAll();
-        int parejasCorregidas = 0;
-        
-        for (Pareja pareja : todasLasParejas) {
-            if (pareja.getDerrotas() >= 2 && !pareja.isEliminada()) {
-                // Pareja con 2+ derrotas que no está eliminada
-                pareja.setEliminada(true);
-                parejaRepository.save(pareja);
-                parejasCorregidas++;
-                log.info("Pareja {} marcada como eliminada (2 derrotas, ronda actual: {})", 
-                        pareja.getNombre(), rondaActual);
-            } else if (pareja.getDerrotas() < 2 && pareja.isEliminada()) {
-                // Pareja con menos de 2 derrotas que está marcada como eliminada
-                pareja.setEliminada(false);
-                parejaRepository.save(pareja);
-                parejasCorregidas++;
-                log.info("Pareja {} marcada como activa ({} derrotas, ronda actual: {})", 
-                        pareja.getNombre(), pareja.getDerrotas(), rondaActual);
-            }
-        }
-        
+    public void verificarEliminacionParejas(Long torneoId) {
+        Torneo torneo = torneoRepository.bloquearTorneo(torneoId);
+        int parejasCorregidas = registroResultados.reconstruir(torneo);
         if (parejasCorregidas > 0) {
-            log.info("Estado de eliminación corregido para {} parejas", parejasCorregidas);
+            cacheEstadoTorneo.invalidar(torneoId);
+            actualizarFaseTorneo(torneo);
+            log.info("Derrotas recalculadas desde el registro de resultados: {} parejas corregidas", parejasCorregidas);
         }
     }
 
 	// Método eliminado: la mezcla ahora es automática en cada ronda
 
-	// Reiniciar torneo: borra enfrentamientos y parejas
+	// Reiniciar torneo: borra enfrentamientos y parejas de ese torneo (los demás torneos no se tocan)
 	@org.springframework.transaction.annotation.Transactional
-	public void reiniciarTorneo() {
+	public void reiniciarTorneo(Long torneoId) {
 		// Limpiar el orden mezclado
 		// ordenParejasMezcladas = null; // Eliminado
 		
-		// Borrar primero enfrentamientos por claves foráneas a parejas
-		enfrentamientoRepository.deleteAllInBatch();
-		parejaRepository.deleteAllInBatch();
-		// Resetear AUTO_INCREMENT para que los IDs empiecen desde 1 de nuevo
+		// Borrar primero el registro de resultados y los enfrentamientos por claves foráneas a parejas
+		cacheEstadoTorneo.invalidar(torneoId);
+		cacheHistorialRondas.invalidar(torneoId);
+		Torneo torneo = torneoRepository.bloquearTorneo(torneoId);
+		eventoResultadoRepository.deleteByTorneo(torneo);
+		enfrentamientoRepository.deleteByTorneo(torneo);
+		parejaRepository.deleteByTorneo(torneo);
+		torneo = obtenerTorneo(torneoId);
+		torneo.reiniciar();
+		torneoRepository.save(torneo);
+		// Resetear AUTO_INCREMENT para que los IDs empiecen desde 1 de nuevo (solo si no quedan datos de otros torneos)
+		if (enfrentamientoRepository.count() > 0 || parejaRepository.count() > 0) {
+			return;
+		}
 		try {
 			jdbcTemplate.execute("ALTER TABLE enfrentamientos AUTO_INCREMENT = 1");
 			jdbcTemplate.execute("ALTER TABLE parejas AUTO_INCREMENT = 1");
@@ -734,4 +879,4 @@ public class TorneoService {
 			log.warn("No se pudo reiniciar AUTO_INCREMENT: {}", e.getMessage());
 		}
 	}
-} 
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+-- Torneos múltiples y control optimista de concurrencia sobre el esquema inicial.
+-- Las filas existentes quedan sin torneo; al arrancar, TorneoService.inicializarTorneo crea el torneo por defecto
+-- y se las asigna.
+CREATE TABLE torneos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(100),
+    ronda_actual INT NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE parejas ADD COLUMN torneo_id BIGINT;
+ALTER TABLE parejas ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE parejas ADD CONSTRAINT fk_parejas_torneo FOREIGN KEY (torneo_id) REFERENCES torneos (id);
+
+ALTER TABLE enfrentamientos ADD COLUMN torneo_id BIGINT;
+ALTER TABLE enfrentamientos ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE enfrentamientos ADD CONSTRAINT fk_enfrentamientos_torneo FOREIGN KEY (torneo_id) REFERENCES torneos (id);
+
+-- El nombre de la pareja pasa a ser único dentro de cada torneo: fuera el índice único global que creó Hibernate
+-- (el nombre es fijo, Hibernate lo deriva de la tabla y la columna). DROP CONSTRAINT necesita MySQL 8.0.19 o superior.
+ALTER TABLE parejas DROP CONSTRAINT UK_45sjb64cbi8rf4pm7hvwc0nlm;
+ALTER TABLE parejas ADD CONSTRAINT uk_parejas_torneo_nombre UNIQUE (torneo_id, nombre);
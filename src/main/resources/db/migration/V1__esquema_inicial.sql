@@ -0,0 +1,12 @@
+-- Esquema inicial: exactamente el que generaba Hibernate con ddl-auto=update antes de pasar a Flyway (un solo
+-- torneo, nombre de pareja único en toda la tabla). Las bases de datos que ya existían con ese esquema se marcan
+-- en esta versión sin ejecutarla (baseline) y reciben el resto de cambios con las migraciones siguientes.
+
+create table enfrentamientos (jugado bit not null, ronda integer not null, ganador_id bigint, id bigint not null auto_increment, pareja1_id bigint not null, pareja2_id bigint, primary key (id)) engine=InnoDB;
+create table pareja_rivales (pareja_id bigint not null, rival_nombre varchar(255)) engine=InnoDB;
+create table parejas (derrotas integer not null, descansos integer not null, eliminada bit not null, id bigint not null auto_increment, nombre varchar(255) not null, primary key (id)) engine=InnoDB;
+alter table parejas add constraint UK_45sjb64cbi8rf4pm7hvwc0nlm unique (nombre);
+alter table enfrentamientos add constraint FK8repablpkqxb3k2s9mjyqh9ey foreign key (ganador_id) references parejas (id);
+alter table enfrentamientos add constraint FK3wi5o6etabxiqfqpbttl7xrei foreign key (pareja1_id) references parejas (id);
+alter table enfrentamientos add constraint FKex4dfvts2vxfivlh2b86f6y6k foreign key (pareja2_id) references parejas (id);
+alter table pareja_rivales add constraint FK643n3jjv7vp6b7gq8qyex96dv foreign key (pareja_id) references parejas (id);
@@ -0,0 +1,11 @@
+-- Índices para las consultas de EnfrentamientoRepository y ParejaRepository.
+
+-- Ronda de un torneo y sus pendientes: findByTorneoAndRondaOrderById, findByTorneoAndRondaAndJugadoFalse,
+-- findResumenEnfrentamientos y findParesJugados (por torneo)
+CREATE INDEX idx_enf_torneo_ronda_jugado ON enfrentamientos (torneo_id, ronda, jugado);
+
+-- Parejas activas / eliminadas de un torneo: findParejasActivas, findParejasEliminadas, countParejasActivas
+CREATE INDEX idx_parejas_torneo_eliminada ON parejas (torneo_id, eliminada);
+
+-- Los rivales jugados se deducen de 'enfrentamientos'; la tabla antigua de nombres ya no se usa
+DROP TABLE IF EXISTS pareja_rivales;
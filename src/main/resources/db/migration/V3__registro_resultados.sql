@@ -0,0 +1,28 @@
+-- Registro de resultados: solo se añaden filas. Las derrotas de las parejas son su proyección.
+CREATE TABLE eventos_resultado (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    torneo_id BIGINT NOT NULL,
+    enfrentamiento_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    ganador_id BIGINT NOT NULL,
+    perdedor_id BIGINT,
+    registrado TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_eventos_resultado_torneo FOREIGN KEY (torneo_id) REFERENCES torneos (id),
+    CONSTRAINT fk_eventos_resultado_enfrentamiento FOREIGN KEY (enfrentamiento_id) REFERENCES enfrentamientos (id),
+    CONSTRAINT fk_eventos_resultado_ganador FOREIGN KEY (ganador_id) REFERENCES parejas (id),
+    CONSTRAINT fk_eventos_resultado_perdedor FOREIGN KEY (perdedor_id) REFERENCES parejas (id)
+);
+
+-- Reproducir el registro de un torneo en orden (EventoResultadoRepository.findRegistro)
+CREATE INDEX idx_eventos_resultado_torneo ON eventos_resultado (torneo_id, id);
+
+-- Los resultados ya registrados pasan al registro como un RESULTADO cada uno (sin descansos)
+INSERT INTO eventos_resultado (torneo_id, enfrentamiento_id, tipo, ganador_id, perdedor_id, registrado)
+SELECT e.torneo_id, e.id, 'RESULTADO', e.ganador_id,
+       CASE WHEN e.ganador_id = e.pareja1_id THEN e.pareja2_id ELSE e.pareja1_id END,
+       CURRENT_TIMESTAMP
+FROM enfrentamientos e
+WHERE e.jugado = TRUE AND e.ganador_id IS NOT NULL AND e.torneo_id IS NOT NULL
+  AND (e.pareja2_id IS NULL OR e.pareja2_id <> e.pareja1_id)
+ORDER BY e.ronda, e.id;
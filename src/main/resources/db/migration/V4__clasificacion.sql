@@ -0,0 +1,44 @@
+-- Clasificación precalculada en la propia tabla de parejas. La mantiene RegistroResultados con cada resultado
+-- y la página de clasificación la lee ya ordenada por índice, una página cada vez.
+ALTER TABLE parejas ADD COLUMN victorias INT NOT NULL DEFAULT 0;
+ALTER TABLE parejas ADD COLUMN jugados INT NOT NULL DEFAULT 0;
+ALTER TABLE parejas ADD COLUMN rivales INT NOT NULL DEFAULT 0;
+ALTER TABLE parejas ADD COLUMN ronda_eliminacion INT;
+
+-- Valores iniciales a partir de los enfrentamientos con resultado (sin descansos)
+UPDATE parejas p SET
+    victorias = (SELECT COUNT(*) FROM enfrentamientos e
+                 WHERE e.jugado = TRUE AND e.ganador_id = p.id AND e.pareja2_id <> e.pareja1_id),
+    jugados = (SELECT COUNT(*) FROM enfrentamientos e
+               WHERE e.jugado = TRUE AND e.ganador_id IS NOT NULL AND e.pareja2_id <> e.pareja1_id
+                 AND (e.pareja1_id = p.id OR e.pareja2_id = p.id)),
+    ronda_eliminacion = CASE WHEN p.eliminada THEN
+              (SELECT MAX(e.ronda) FROM enfrentamientos e
+               WHERE e.jugado = TRUE AND e.ganador_id IS NOT NULL AND e.ganador_id <> p.id AND e.pareja2_id <> e.pareja1_id
+                 AND (e.pareja1_id = p.id OR e.pareja2_id = p.id))
+        END;
+
+-- Rivales distintos de cada pareja. MySQL no deja leer parejas en una subconsulta del UPDATE de parejas (ERROR 1093)
+-- y H2 no admite UPDATE con JOIN, así que se cuentan antes en una tabla de trabajo a partir de enfrentamientos
+CREATE TABLE rivales_iniciales (
+    pareja_id BIGINT NOT NULL,
+    rivales INT NOT NULL,
+    PRIMARY KEY (pareja_id)
+);
+INSERT INTO rivales_iniciales (pareja_id, rivales)
+SELECT x.pareja_id, COUNT(DISTINCT x.rival_id) FROM (
+    SELECT e.pareja1_id AS pareja_id, e.pareja2_id AS rival_id FROM enfrentamientos e
+    WHERE e.jugado = TRUE AND e.ganador_id IS NOT NULL AND e.pareja2_id <> e.pareja1_id
+    UNION ALL
+    SELECT e.pareja2_id, e.pareja1_id FROM enfrentamientos e
+    WHERE e.jugado = TRUE AND e.ganador_id IS NOT NULL AND e.pareja2_id <> e.pareja1_id
+) x
+GROUP BY x.pareja_id;
+UPDATE parejas p SET rivales = (SELECT r.rivales FROM rivales_iniciales r WHERE r.pareja_id = p.id)
+WHERE p.id IN (SELECT r.pareja_id FROM rivales_iniciales r);
+DROP TABLE rivales_iniciales;
+
+-- Orden de la clasificación (ParejaRepository.findClasificacion): activas por menos derrotas y más victorias,
+-- después eliminadas por ronda de eliminación más tardía. También sirve a findParejasActivas / countParejasActivas.
+CREATE INDEX idx_parejas_clasificacion ON parejas (torneo_id, eliminada, derrotas, ronda_eliminacion DESC, victorias DESC);
+DROP INDEX idx_parejas_torneo_eliminada ON parejas;
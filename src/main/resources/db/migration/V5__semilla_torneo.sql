@@ -0,0 +1,5 @@
+-- Semilla de los sorteos de cada torneo: las rondas sacan de ella su propio generador (ver AleatorioRonda)
+-- y así cualquier emparejamiento se puede reproducir. Los torneos ya creados reciben una al azar.
+ALTER TABLE torneos ADD COLUMN semilla BIGINT NOT NULL DEFAULT 0;
+
+UPDATE torneos SET semilla = FLOOR((RAND() - 0.5) * 9.2e18);
@@ -0,0 +1,4 @@
+-- Versión de los datos de cada torneo. La sube, en la misma transacción, cada escritura que cambia lo que se
+-- muestra (resultado, ronda, pareja, reinicio). Al estar en la base de datos es la misma para todas las
+-- instancias de la aplicación: sirve de ETag y para comprobar si una foto cacheada sigue valiendo.
+ALTER TABLE torneos ADD COLUMN version_datos BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Versión del historial de cada torneo. La suben, en la misma transacción, las correcciones de resultados de
+-- rondas ya jugadas y el reinicio del torneo: las únicas escrituras que cambian una ronda cerrada. Las rondas
+-- cacheadas de cualquier instancia se comparan con ella (ver CacheHistorialRondas).
+ALTER TABLE torneos ADD COLUMN version_historial BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,88 @@
+package torneomus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+// Las migraciones de Flyway sobre una base de datos creada por la aplicación anterior a Flyway (ddl-auto=update)
+// y sobre una vacía: las dos tienen que acabar con el mismo esquema.
+class MigracionesTest {
+
+    @Test
+    void actualizaUnaBaseDeDatosCreadaConDdlAutoUpdate() {
+        DriverManagerDataSource baseDeDatos = baseDeDatos("migracion_anterior");
+        new ResourceDatabasePopulator(new ClassPathResource("esquema-ddl-update-h2.sql")).execute(baseDeDatos);
+        JdbcTemplate jdbc = new JdbcTemplate(baseDeDatos);
+        // Datos como los dejaba la versión anterior: un partido jugado y los rivales por nombre
+        jdbc.update("INSERT INTO parejas (nombre, derrotas, eliminada, descansos) VALUES ('Los Tigres', 0, FALSE, 0), ('Los Lobos', 1, FALSE, 0)");
+        jdbc.update("INSERT INTO enfrentamientos (pareja1_id, pareja2_id, ronda, ganador_id, jugado) VALUES (1, 2, 1, 1, TRUE)");
+        jdbc.update("INSERT INTO pareja_rivales (pareja_id, rival_nombre) VALUES (1, 'Los Lobos'), (2, 'Los Tigres')");
+
+        MigrateResult resultado = flyway(baseDeDatos).migrate();
+
+        assertThat(resultado.success).isTrue();
+        assertThat(resultado.initialSchemaVersion).isEqualTo("1");
+        // Las filas anteriores siguen ahí, sin torneo hasta que arranque la aplicación, y con la clasificación calculada
+        assertThat(jdbc.queryForList("SELECT nombre FROM parejas WHERE torneo_id IS NULL ORDER BY id", String.class))
+                .containsExactly("Los Tigres", "Los Lobos");
+        assertThat(jdbc.queryForObject("SELECT victorias FROM parejas WHERE id = 1", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT rivales FROM parejas WHERE id = 2", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'pareja_rivales'", Integer.class)).isZero();
+
+        // El nombre ya no es único en toda la tabla, sino dentro de cada torneo
+        jdbc.update("INSERT INTO torneos (nombre, ronda_actual, estado, semilla) VALUES ('Uno', 0, 'INSCRIPCION', 1), ('Dos', 0, 'INSCRIPCION', 2)");
+        jdbc.update("UPDATE parejas SET torneo_id = 1");
+        jdbc.update("INSERT INTO parejas (nombre, torneo_id, derrotas, eliminada, descansos) VALUES ('Los Tigres', 2, 0, FALSE, 0)");
+        assertThatThrownBy(() -> jdbc.update("INSERT INTO parejas (nombre, torneo_id, derrotas, eliminada, descansos) VALUES ('Los Tigres', 2, 0, FALSE, 0)"))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void unaBaseDeDatosVaciaAcabaConElMismoEsquema() {
+        DriverManagerDataSource anterior = baseDeDatos("migracion_comparada_anterior");
+        new ResourceDatabasePopulator(new ClassPathResource("esquema-ddl-update-h2.sql")).execute(anterior);
+        flyway(anterior).migrate();
+        DriverManagerDataSource vacia = baseDeDatos("migracion_comparada_vacia");
+        flyway(vacia).migrate();
+
+        assertThat(columnas(vacia)).isEqualTo(columnas(anterior));
+        assertThat(indices(vacia)).isEqualTo(indices(anterior));
+    }
+
+    private static DriverManagerDataSource baseDeDatos(String nombre) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + nombre + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    // Misma configuración que la aplicación (spring.flyway.* en application.properties)
+    private static Flyway flyway(DriverManagerDataSource baseDeDatos) {
+        return Flyway.configure()
+                .dataSource(baseDeDatos)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    private static List<String> columnas(DriverManagerDataSource baseDeDatos) {
+        return new JdbcTemplate(baseDeDatos).queryForList(
+                "SELECT table_name || '.' || column_name || ' ' || data_type || ' ' || is_nullable FROM information_schema.columns " +
+                "WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' ORDER BY table_name, column_name", String.class);
+    }
+
+    private static List<String> indices(DriverManagerDataSource baseDeDatos) {
+        return new JdbcTemplate(baseDeDatos).queryForList(
+                "SELECT i.table_name || '.' || i.index_name || ' ' || c.column_name FROM information_schema.indexes i " +
+                "JOIN information_schema.index_columns c ON c.index_name = i.index_name AND c.table_name = i.table_name " +
+                "WHERE i.table_schema = 'public' AND i.index_name NOT LIKE 'constraint%' AND i.table_name <> 'flyway_schema_history' " +
+                "ORDER BY i.table_name, i.index_name, c.ordinal_position", String.class);
+    }
+}
@@ -0,0 +1,150 @@
+package torneomus.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import torneomus.entity.Torneo;
+
+// Planes de ejecución (EXPLAIN de H2) de las consultas calientes de los repositorios sobre el esquema de las
+// migraciones: cada una tiene que ir por el índice que le da V2/V3/V4 y no recorrer la tabla entera.
+// Se explica la SQL que genera Hibernate de verdad, capturada con un StatementInspector.
+// Cuando la consulta solo filtra por torneo, H2 puede elegir con el mismo coste el índice propio de la clave foránea
+// torneo_id (MySQL lo descarta en cuanto existe el compuesto); ahí se comprueba que se busca por índice y no se recorre.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=torneomus.repository.IndicesConsultasTest$SqlCapturada")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndicesConsultasTest {
+
+    private static final int TORNEOS = 4;
+    private static final int PAREJAS_POR_TORNEO = 128;
+    private static final int RONDAS = 8;
+
+    // Acceso por un índice cuya primera columna es torneo_id: "/* public.<índice>: torneo_id = ?1 */"
+    private static final String INDICE_POR_TORNEO = "/\\* public\\.\\w+: torneo_id = \\?1";
+
+    @Autowired
+    private EnfrentamientoRepository enfrentamientoRepository;
+
+    @Autowired
+    private ParejaRepository parejaRepository;
+
+    @Autowired
+    private EventoResultadoRepository eventoResultadoRepository;
+
+    @Autowired
+    private TorneoRepository torneoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Torneo torneo;
+
+    // Sentencias que Hibernate prepara en este hilo
+    public static class SqlCapturada implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> sentencias = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            sentencias.get().add(sql);
+            return sql;
+        }
+    }
+
+    // Varios torneos con sus parejas, rondas jugadas y registro de resultados, para que el optimizador tenga
+    // estadísticas con las que elegir
+    @BeforeAll
+    void sembrar() {
+        List<Long> torneos = new ArrayList<>();
+        for (int t = 0; t < TORNEOS; t++) {
+            torneos.add(torneoRepository.save(new Torneo("Índices " + t)).getId());
+        }
+        for (Long torneoId : torneos) {
+            List<Object[]> parejas = new ArrayList<>();
+            for (int i = 0; i < PAREJAS_POR_TORNEO; i++) {
+                parejas.add(new Object[] {"Pareja " + i, torneoId, i % 3, i % 3 == 2, i % 5});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO parejas (nombre, torneo_id, derrotas, eliminada, descansos) VALUES (?, ?, ?, ?, ?)", parejas);
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM parejas WHERE torneo_id = ? ORDER BY id", Long.class, torneoId);
+
+            List<Object[]> enfrentamientos = new ArrayList<>();
+            for (int ronda = 1; ronda <= RONDAS; ronda++) {
+                for (int i = 0; i < ids.size(); i += 2) {
+                    boolean jugado = ronda < RONDAS;
+                    enfrentamientos.add(new Object[] {ids.get(i), ids.get((i + ronda * 2 + 1) % ids.size()), ronda,
+                            jugado ? ids.get(i) : null, jugado, torneoId});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO enfrentamientos (pareja1_id, pareja2_id, ronda, ganador_id, jugado, torneo_id) VALUES (?, ?, ?, ?, ?, ?)",
+                    enfrentamientos);
+            jdbcTemplate.update("INSERT INTO eventos_resultado (torneo_id, enfrentamiento_id, tipo, ganador_id, perdedor_id, registrado) " +
+                    "SELECT torneo_id, id, 'RESULTADO', ganador_id, pareja2_id, CURRENT_TIMESTAMP FROM enfrentamientos " +
+                    "WHERE torneo_id = ? AND jugado = TRUE", torneoId);
+        }
+        jdbcTemplate.execute("ANALYZE");
+        torneo = torneoRepository.findById(torneos.get(1)).orElseThrow();
+    }
+
+    @Test
+    void enfrentamientosDeUnaRonda() {
+        String plan = plan(() -> enfrentamientoRepository.findByTorneoAndRondaOrderById(torneo, 3), torneo.getId(), 3);
+        assertThat(plan).contains("idx_enf_torneo_ronda_jugado").doesNotContain("tableScan");
+    }
+
+    @Test
+    void pendientesDeUnaRonda() {
+        String plan = plan(() -> enfrentamientoRepository.countByTorneoAndRondaAndJugadoFalse(torneo, RONDAS), torneo.getId(), RONDAS);
+        assertThat(plan).contains("idx_enf_torneo_ronda_jugado").doesNotContain("tableScan");
+    }
+
+    @Test
+    void historialDeUnTramoDeRondas() {
+        String plan = plan(() -> enfrentamientoRepository.findHistorial(torneo, 2, 4), torneo.getId(), 2, 4);
+        assertThat(plan).contains("idx_enf_torneo_ronda_jugado");
+    }
+
+    @Test
+    void resumenDeEnfrentamientosDelTorneo() {
+        String plan = plan(() -> enfrentamientoRepository.findResumenEnfrentamientos(torneo), torneo.getId());
+        assertThat(plan).contains("torneo_id = ?").doesNotContain("enfrentamientos.tableScan");
+    }
+
+    @Test
+    void parejasActivas() {
+        String plan = plan(() -> parejaRepository.findParejasActivas(torneo), torneo.getId());
+        assertThat(plan).contains("idx_parejas_clasificacion").doesNotContain("tableScan");
+    }
+
+    @Test
+    void paginaDeLaClasificacion() {
+        String plan = plan(() -> parejaRepository.findClasificacion(torneo, PageRequest.of(0, 20)), torneo.getId(), 20);
+        assertThat(plan).containsPattern(INDICE_POR_TORNEO).doesNotContain("tableScan");
+    }
+
+    @Test
+    void registroDeResultados() {
+        String plan = plan(() -> eventoResultadoRepository.findRegistro(torneo), torneo.getId());
+        assertThat(plan).containsPattern(INDICE_POR_TORNEO).doesNotContain("tableScan");
+    }
+
+    // EXPLAIN de la primera sentencia que lanza la consulta, con sus parámetros
+    private String plan(Runnable consulta, Object... parametros) {
+        List<String> sentencias = SqlCapturada.sentencias.get();
+        sentencias.clear();
+        consulta.run();
+        assertThat(sentencias).isNotEmpty();
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sentencias.get(0), String.class, parametros));
+    }
+}
@@ -0,0 +1,41 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class AleatorioRondaTest {
+
+    @Test
+    void mismaSemillaYRondaDanLaMismaSecuencia() {
+        assertThat(primeros(AleatorioRonda.para(1234L, 3))).isEqualTo(primeros(AleatorioRonda.para(1234L, 3)));
+    }
+
+    @Test
+    void semillasYRondasVecinasNoCoinciden() {
+        for (long semilla : new long[] {0L, 1L, -1L, 1234L, Long.MAX_VALUE}) {
+            assertThat(primeros(AleatorioRonda.para(semilla, 2))).isNotEqualTo(primeros(AleatorioRonda.para(semilla + 1, 1)));
+        }
+    }
+
+    @Test
+    void lasRondasDeUnTorneoNoRepitenSecuenciaDesplazada() {
+        // Con semilla 0 y la ronda multiplicada por el incremento de SplittableRandom, la ronda 1 empezaría
+        // por el segundo número de la ronda 0
+        Set<Long> vistos = new HashSet<>();
+        for (int ronda = 0; ronda < 64; ronda++) {
+            SplittableRandom random = AleatorioRonda.para(0L, ronda);
+            for (int i = 0; i < 64; i++) {
+                assertThat(vistos.add(random.nextLong())).isTrue();
+            }
+        }
+    }
+
+    private static long[] primeros(SplittableRandom random) {
+        return random.longs(8).toArray();
+    }
+}
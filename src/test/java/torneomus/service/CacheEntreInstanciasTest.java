@@ -0,0 +1,89 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import torneomus.Main;
+
+// Dos instancias de la aplicación sobre la misma base de datos, cada una con sus caches: lo que escribe una tiene
+// que verse en la foto, el ETag y el historial de la otra en la siguiente lectura.
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CacheEntreInstanciasTest {
+
+    private ConfigurableApplicationContext instanciaA;
+    private ConfigurableApplicationContext instanciaB;
+
+    @BeforeAll
+    void arrancar() {
+        String url = "--spring.datasource.url=jdbc:h2:mem:cache_entre_instancias;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        instanciaA = new SpringApplicationBuilder(Main.class).profiles("test").run(url);
+        instanciaB = new SpringApplicationBuilder(Main.class).profiles("test").run(url);
+    }
+
+    @AfterAll
+    void parar() {
+        instanciaB.close();
+        instanciaA.close();
+    }
+
+    @Test
+    void unaEscrituraEnUnaInstanciaInvalidaLaFotoDeLaOtra() {
+        TorneoService servicioA = instanciaA.getBean(TorneoService.class);
+        TorneoService servicioB = instanciaB.getBean(TorneoService.class);
+        Long torneoId = servicioA.crearTorneo("Entre instancias").getId();
+        servicioA.registrarPareja(torneoId, "Pareja 1");
+
+        // B cachea su foto y la sirve mientras nadie escriba
+        EstadoTorneo foto = servicioB.obtenerEstadoTorneo(torneoId);
+        assertThat(servicioB.obtenerEstadoTorneo(torneoId)).isSameAs(foto);
+        String etiqueta = servicioB.getVersionEstado(torneoId);
+        assertThat(servicioA.getVersionEstado(torneoId)).isEqualTo(etiqueta);
+
+        servicioA.registrarPareja(torneoId, "Pareja 2");
+
+        assertThat(servicioB.getVersionEstado(torneoId)).isNotEqualTo(etiqueta).isEqualTo(servicioA.getVersionEstado(torneoId));
+        assertThat(servicioB.obtenerEstadoTorneo(torneoId).getParejasActivas())
+                .extracting(EstadoTorneo.ParejaResumen::getNombre)
+                .containsExactlyInAnyOrder("Pareja 1", "Pareja 2");
+    }
+
+    @Test
+    void unTorneoNuevoApareceEnLasFotosDeLaOtraInstancia() {
+        TorneoService servicioA = instanciaA.getBean(TorneoService.class);
+        TorneoService servicioB = instanciaB.getBean(TorneoService.class);
+        Long torneoId = servicioA.crearTorneo("Ya existente").getId();
+        int torneos = servicioB.obtenerEstadoTorneo(torneoId).getTorneos().size();
+
+        servicioA.crearTorneo("Recién creado");
+
+        assertThat(servicioB.obtenerEstadoTorneo(torneoId).getTorneos()).hasSize(torneos + 1);
+    }
+
+    @Test
+    void unaCorreccionEnUnaInstanciaDescartaElHistorialDeLaOtra() {
+        Long torneoId = instanciaA.getBean(TorneoService.class).crearTorneo("Historial").getId();
+        CacheHistorialRondas historialA = instanciaA.getBean(CacheHistorialRondas.class);
+        CacheHistorialRondas historialB = instanciaB.getBean(CacheHistorialRondas.class);
+
+        long version = historialB.version(torneoId);
+        historialB.guardar(torneoId, 1, version, "<ronda 1>");
+        assertThat(historialB.obtener(torneoId, 1, historialB.version(torneoId))).isEqualTo("<ronda 1>");
+
+        new TransactionTemplate(instanciaA.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> historialA.invalidar(torneoId));
+
+        assertThat(historialB.version(torneoId)).isEqualTo(version + 1);
+        assertThat(historialB.obtener(torneoId, 1, historialB.version(torneoId))).isNull();
+        // Un HTML renderizado con la versión anterior no se sirve con la nueva
+        historialB.guardar(torneoId, 1, version, "<ronda 1 vieja>");
+        assertThat(historialB.obtener(torneoId, 1, version + 1)).isNull();
+    }
+}
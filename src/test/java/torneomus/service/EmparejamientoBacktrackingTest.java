@@ -0,0 +1,38 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+
+class EmparejamientoBacktrackingTest {
+
+    // Las métricas de la búsqueda van al registro de la aplicación, como las del resto de clases instrumentadas
+    @Test
+    void registraLasMetricasEnElRegistroInyectado() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        List<Pareja> parejas = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            Pareja pareja = new Pareja("Pareja " + id);
+            pareja.setId(id);
+            parejas.add(pareja);
+            ids.add(id);
+        }
+
+        List<Enfrentamiento> ronda = new EmparejamientoBacktracking(registro)
+                .emparejar(parejas, 1, new HistorialEnfrentamientos(ids, List.of()), new SplittableRandom(1L));
+
+        assertThat(ronda).hasSize(3);
+        assertThat(registro.get("torneo.emparejamiento.backtracking.profundidad").summary().count()).isEqualTo(1);
+        assertThat(registro.find("torneo.emparejamiento.backtracking.retrocesos").counter()).isNotNull();
+        assertThat(registro.find("torneo.emparejamiento.backtracking.con.repetidos").counter()).isNull();
+    }
+}
@@ -0,0 +1,222 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import torneomus.entity.Enfrentamiento;
+import torneomus.entity.Pareja;
+
+// El blossom y la estrategia de coste mínimo frente a la enumeración de todos los emparejamientos posibles
+// de grafos completos pequeños (hasta 10 vértices: 945 emparejamientos perfectos).
+class EmparejamientoCosteMinimoTest {
+
+    private static final int GRAFOS_POR_CASO = 200;
+
+    @Test
+    void costesConEmpates() {
+        comprobarContraFuerzaBruta(1L, (random, n) -> random.nextInt(3));
+    }
+
+    @Test
+    void costesDispersos() {
+        comprobarContraFuerzaBruta(2L, (random, n) -> random.nextInt(1_000_000));
+    }
+
+    @Test
+    void costesConRepeticiones() {
+        // Como los de EmparejamientoCosteMinimo: repeticiones que pesan más que todo lo demás junto, más ruido
+        comprobarContraFuerzaBruta(3L, (random, n) ->
+                random.nextInt(3) * EmparejamientoCosteMinimo.COSTE_REPETICION + random.nextInt(4) * 1_000_000L + random.nextInt(1_000));
+    }
+
+    @Test
+    void conUnNumeroImparDeVerticesQuedaUnoLibre() {
+        SplittableRandom random = new SplittableRandom(4L);
+        for (int n = 3; n <= 9; n += 2) {
+            for (int intento = 0; intento < GRAFOS_POR_CASO; intento++) {
+                long[][] costes = costes(random, n, (r, m) -> r.nextInt(5));
+                int[] pareja = resolver(costes);
+                assertThat(libres(pareja)).isEqualTo(1);
+                assertThat(coste(costes, pareja)).isEqualTo(costeMinimo(costes, new boolean[n], 1));
+            }
+        }
+    }
+
+    @Test
+    void laEstrategiaMinimizaLasRepeticiones() {
+        SplittableRandom random = new SplittableRandom(5L);
+        EmparejamientoCosteMinimo estrategia = new EmparejamientoCosteMinimo();
+        for (int n = 2; n <= 10; n += 2) {
+            for (int intento = 0; intento < GRAFOS_POR_CASO; intento++) {
+                List<Pareja> parejas = parejas(n);
+                int rondasJugadas = 1 + random.nextInt(n);
+                HistorialEnfrentamientos historial = historial(parejas, rondasJugadas, random);
+                long[][] veces = new long[n][n];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        veces[i][j] = i == j ? 0 : historial.vecesEnfrentados(parejas.get(i).getId(), parejas.get(j).getId());
+                    }
+                }
+
+                List<Enfrentamiento> ronda = estrategia.emparejar(new ArrayList<>(parejas), rondasJugadas + 1, historial, random.split());
+
+                // Emparejamiento perfecto: n/2 partidos y cada pareja en exactamente uno
+                assertThat(ronda).hasSize(n / 2);
+                int[] pareja = new int[n];
+                Arrays.fill(pareja, -1);
+                for (Enfrentamiento e : ronda) {
+                    int a = (int) (e.getPareja1().getId() - 1);
+                    int b = (int) (e.getPareja2().getId() - 1);
+                    assertThat(a).isNotEqualTo(b);
+                    assertThat(pareja[a]).isEqualTo(-1);
+                    assertThat(pareja[b]).isEqualTo(-1);
+                    pareja[a] = b;
+                    pareja[b] = a;
+                }
+                // Tan pocas repeticiones como el mejor emparejamiento posible; ninguna si se puede
+                long repeticiones = coste(veces, pareja);
+                assertThat(repeticiones).isEqualTo(costeMinimo(veces, new boolean[n], 0));
+            }
+        }
+    }
+
+    private interface GeneradorCoste {
+        long coste(SplittableRandom random, int n);
+    }
+
+    private static void comprobarContraFuerzaBruta(long semilla, GeneradorCoste generador) {
+        SplittableRandom random = new SplittableRandom(semilla);
+        for (int n = 2; n <= 10; n += 2) {
+            for (int intento = 0; intento < GRAFOS_POR_CASO; intento++) {
+                long[][] costes = costes(random, n, generador);
+                int[] pareja = resolver(costes);
+                assertThat(libres(pareja)).isZero();
+                assertThat(coste(costes, pareja)).isEqualTo(costeMinimo(costes, new boolean[n], 0));
+            }
+        }
+    }
+
+    private static long[][] costes(SplittableRandom random, int n, GeneradorCoste generador) {
+        long[][] costes = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                costes[i][j] = generador.coste(random, n);
+                costes[j][i] = costes[i][j];
+            }
+        }
+        return costes;
+    }
+
+    // Misma transformación que EmparejamientoCosteMinimo: peso máximo con cardinalidad máxima sobre costeMaximo - coste + 1
+    private static int[] resolver(long[][] costes) {
+        int n = costes.length;
+        int nAristas = n * (n - 1) / 2;
+        int[] origen = new int[nAristas];
+        int[] destino = new int[nAristas];
+        long[] pesos = new long[nAristas];
+        long costeMaximo = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                costeMaximo = Math.max(costeMaximo, costes[i][j]);
+            }
+        }
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                origen[k] = i;
+                destino[k] = j;
+                pesos[k] = costeMaximo - costes[i][j] + 1;
+                k++;
+            }
+        }
+        int[] pareja = AlgoritmoBlossom.emparejamientoPesoMaximo(n, origen, destino, pesos, true);
+        for (int v = 0; v < n; v++) {
+            if (pareja[v] >= 0) {
+                assertThat(pareja[pareja[v]]).isEqualTo(v);
+            }
+        }
+        return pareja;
+    }
+
+    private static int libres(int[] pareja) {
+        int libres = 0;
+        for (int v : pareja) {
+            if (v == -1) {
+                libres++;
+            }
+        }
+        return libres;
+    }
+
+    private static long coste(long[][] costes, int[] pareja) {
+        long total = 0;
+        for (int i = 0; i < pareja.length; i++) {
+            if (pareja[i] > i) {
+                total += costes[i][pareja[i]];
+            }
+        }
+        return total;
+    }
+
+    // Coste mínimo entre todos los emparejamientos que dejan libres como mucho 'libres' vértices de los no usados
+    private static long costeMinimo(long[][] costes, boolean[] usados, int libres) {
+        int i = 0;
+        while (i < usados.length && usados[i]) {
+            i++;
+        }
+        if (i == usados.length) {
+            return 0;
+        }
+        long mejor = Long.MAX_VALUE;
+        usados[i] = true;
+        if (libres > 0) {
+            mejor = costeMinimo(costes, usados, libres - 1);
+        }
+        for (int j = i + 1; j < usados.length; j++) {
+            if (!usados[j]) {
+                usados[j] = true;
+                long resto = costeMinimo(costes, usados, libres);
+                if (resto != Long.MAX_VALUE) {
+                    mejor = Math.min(mejor, costes[i][j] + resto);
+                }
+                usados[j] = false;
+            }
+        }
+        usados[i] = false;
+        return mejor;
+    }
+
+    private static List<Pareja> parejas(int n) {
+        List<Pareja> parejas = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            Pareja pareja = new Pareja("Pareja " + i);
+            pareja.setId((long) i);
+            parejas.add(pareja);
+        }
+        return parejas;
+    }
+
+    // Rondas anteriores emparejadas al azar, como las filas de EnfrentamientoRepository.findResumenEnfrentamientos
+    private static HistorialEnfrentamientos historial(List<Pareja> parejas, int rondas, SplittableRandom random) {
+        List<Long> ids = new ArrayList<>();
+        parejas.forEach(p -> ids.add(p.getId()));
+        List<Object[]> filas = new ArrayList<>();
+        for (int ronda = 1; ronda <= rondas; ronda++) {
+            List<Long> orden = new ArrayList<>(ids);
+            for (int i = orden.size() - 1; i > 0; i--) {
+                Collections.swap(orden, i, random.nextInt(i + 1));
+            }
+            for (int i = 0; i < orden.size(); i += 2) {
+                filas.add(new Object[] {orden.get(i), orden.get(i + 1), ronda, true});
+            }
+        }
+        return new HistorialEnfrentamientos(ids, filas);
+    }
+}
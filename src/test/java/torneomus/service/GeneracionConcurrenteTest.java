@@ -0,0 +1,87 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import torneomus.Main;
+import torneomus.entity.Enfrentamiento;
+
+// Dos instancias de la aplicación (dos contextos de Spring, cada uno con sus cerrojos en memoria) sobre la misma
+// base de datos H2 generan a la vez la siguiente ronda del mismo torneo: solo el bloqueo de la fila del torneo
+// (bloquearTorneo) las ordena, y la ronda tiene que escribirse una sola vez.
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class GeneracionConcurrenteTest {
+
+    private static final int PAREJAS = 16;
+
+    private ConfigurableApplicationContext instanciaA;
+    private ConfigurableApplicationContext instanciaB;
+
+    @BeforeAll
+    void arrancar() {
+        // LOCK_TIMEOUT: la segunda instancia espera a que la primera confirme en lugar de fallar al segundo
+        String url = "--spring.datasource.url=jdbc:h2:mem:generacion_concurrente;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000";
+        instanciaA = instancia(url);
+        instanciaB = instancia(url);
+    }
+
+    @AfterAll
+    void parar() {
+        instanciaB.close();
+        instanciaA.close();
+    }
+
+    private static ConfigurableApplicationContext instancia(String url) {
+        return new SpringApplicationBuilder(Main.class).profiles("test").run(url);
+    }
+
+    @RepeatedTest(5)
+    void laSiguienteRondaSeEscribeUnaSolaVez() throws Exception {
+        TorneoService servicioA = instanciaA.getBean(TorneoService.class);
+        TorneoService servicioB = instanciaB.getBean(TorneoService.class);
+        Long torneoId = servicioA.crearTorneo("Concurrente " + System.nanoTime()).getId();
+        for (int i = 1; i <= PAREJAS; i++) {
+            servicioA.registrarPareja(torneoId, "Pareja " + i);
+        }
+
+        CountDownLatch salida = new CountDownLatch(1);
+        CompletableFuture<List<Enfrentamiento>> desdeA = CompletableFuture.supplyAsync(() -> generar(servicioA, torneoId, salida));
+        CompletableFuture<List<Enfrentamiento>> desdeB = CompletableFuture.supplyAsync(() -> generar(servicioB, torneoId, salida));
+        salida.countDown();
+
+        // Las dos peticiones devuelven la misma ronda 1: una la genera y la otra se encuentra la ya generada
+        assertThat(ids(desdeA.get())).hasSize(PAREJAS / 2).isEqualTo(ids(desdeB.get()));
+        JdbcTemplate jdbc = instanciaA.getBean(JdbcTemplate.class);
+        assertThat(jdbc.queryForList("SELECT DISTINCT ronda FROM enfrentamientos WHERE torneo_id = ?", Integer.class, torneoId))
+                .containsExactly(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM enfrentamientos WHERE torneo_id = ?", Integer.class, torneoId))
+                .isEqualTo(PAREJAS / 2);
+        assertThat(jdbc.queryForObject("SELECT ronda_actual FROM torneos WHERE id = ?", Integer.class, torneoId)).isEqualTo(1);
+    }
+
+    private static List<Enfrentamiento> generar(TorneoService servicio, Long torneoId, CountDownLatch salida) {
+        try {
+            salida.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return servicio.generarSiguienteRonda(torneoId);
+    }
+
+    private static List<Long> ids(List<Enfrentamiento> enfrentamientos) {
+        return enfrentamientos.stream().map(Enfrentamiento::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import torneomus.entity.Pareja;
+
+// Las líneas repetidas de una importación, dentro del propio texto o ya inscritas en el torneo, se detectan sin
+// distinguir mayúsculas ni acentos, también en H2, cuya comparación de cadenas sí los distingue.
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportacionParejasTest {
+
+    @Autowired
+    private TorneoService torneoService;
+
+    @Test
+    void lasVariantesConAcentosOMayusculasSonLaMismaPareja() {
+        Long torneoId = torneoService.crearTorneo("Importación " + System.nanoTime()).getId();
+
+        ImportacionParejas importacion = torneoService.importarParejas(torneoId, "Los Leones\nlos leónes\nLOS LEONES\nLas Águilas\nlas aguilas");
+
+        assertThat(importacion.getRegistradas()).isEqualTo(2);
+        assertThat(importacion.getErrores()).containsExactly(
+                "Línea 2 (los leónes): repetida, ya aparece en la línea 1",
+                "Línea 3 (LOS LEONES): repetida, ya aparece en la línea 1",
+                "Línea 5 (las aguilas): repetida, ya aparece en la línea 4");
+    }
+
+    @Test
+    void unaVarianteDeUnaParejaYaInscritaSeRechaza() {
+        Long torneoId = torneoService.crearTorneo("Importación " + System.nanoTime()).getId();
+        torneoService.registrarPareja(torneoId, "Los Leones");
+
+        ImportacionParejas importacion = torneoService.importarParejas(torneoId, "los leónes\nLas Águilas");
+
+        assertThat(importacion.getRegistradas()).isEqualTo(1);
+        assertThat(importacion.getErrores()).containsExactly("Línea 1 (los leónes): ya está inscrita en el torneo");
+        assertThat(torneoService.getAllParejas(torneoId)).extracting(Pareja::getNombre)
+                .containsExactlyInAnyOrder("Los Leones", "Las Águilas");
+    }
+}
@@ -0,0 +1,80 @@
+package torneomus.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import torneomus.entity.Enfrentamiento;
+
+// Dos resultados de partidos distintos del mismo torneo a la vez: la versión del torneo se sube justo antes del
+// commit, así que ninguno de los dos tiene bloqueada la fila del torneo mientras el otro registra el suyo.
+@SpringBootTest
+@ActiveProfiles("test")
+class ResultadosConcurrentesTest {
+
+    private static final int ESPERA_MAXIMA_S = 5;
+
+    @Autowired
+    private TorneoService torneoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void losResultadosDePartidosDistintosNoSeEsperan() throws Exception {
+        Long torneoId = torneoService.crearTorneo("Resultados " + System.nanoTime()).getId();
+        for (int i = 1; i <= 8; i++) {
+            torneoService.registrarPareja(torneoId, "Pareja " + i);
+        }
+        torneoService.generarPrimerasDosRondas(torneoId);
+        List<Enfrentamiento> partidos = torneoService.getEnfrentamientosPorRonda(torneoId, 1).stream()
+                .filter(e -> !e.isDescanso())
+                .collect(Collectors.toList());
+        Enfrentamiento primero = partidos.get(0);
+        Enfrentamiento segundo = partidos.get(1);
+        String etiqueta = torneoService.getVersionEstado(torneoId);
+
+        // A registra el primer resultado en una transacción que no confirma hasta que B haya terminado
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        CompletableFuture<Void> desdeA = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    torneoService.registrarResultado(torneoId, primero.getId(), primero.getPareja1().getId());
+                    registrado.countDown();
+                    esperar(confirmar);
+                }));
+        assertThat(registrado.await(ESPERA_MAXIMA_S, TimeUnit.SECONDS)).isTrue();
+
+        // B registra y confirma el segundo con la transacción de A todavía abierta
+        CompletableFuture.runAsync(() -> torneoService.registrarResultado(torneoId, segundo.getId(), segundo.getPareja1().getId()))
+                .get(ESPERA_MAXIMA_S, TimeUnit.SECONDS);
+        confirmar.countDown();
+        desdeA.get(ESPERA_MAXIMA_S, TimeUnit.SECONDS);
+
+        assertThat(torneoService.getEnfrentamiento(primero.getId()).isJugado()).isTrue();
+        assertThat(torneoService.getEnfrentamiento(segundo.getId()).isJugado()).isTrue();
+        // Cada resultado subió la versión una vez
+        long version = Long.parseLong(etiqueta.substring(etiqueta.indexOf('-') + 1));
+        assertThat(torneoService.getVersionEstado(torneoId)).isEqualTo(torneoId + "-" + (version + 2));
+    }
+
+    private static void esperar(CountDownLatch senal) {
+        try {
+            senal.await(ESPERA_MAXIMA_S * 2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
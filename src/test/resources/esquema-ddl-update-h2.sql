@@ -0,0 +1,28 @@
+-- Esquema que creaba la aplicación anterior a Flyway (ddl-auto=update) sobre H2 en modo MySQL, volcado con SCRIPT NODATA
+-- tras arrancarla contra una base de datos vacía. Es el punto de partida de las bases de datos ya desplegadas.
+CREATE CACHED TABLE "public"."enfrentamientos"(
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1) DEFAULT ON NULL NOT NULL,
+    "jugado" BOOLEAN NOT NULL,
+    "ronda" INTEGER NOT NULL,
+    "ganador_id" BIGINT,
+    "pareja1_id" BIGINT NOT NULL,
+    "pareja2_id" BIGINT
+);
+ALTER TABLE "public"."enfrentamientos" ADD CONSTRAINT "public"."CONSTRAINT_7" PRIMARY KEY("id");
+CREATE CACHED TABLE "public"."pareja_rivales"(
+    "pareja_id" BIGINT NOT NULL,
+    "rival_nombre" CHARACTER VARYING(255)
+);
+CREATE CACHED TABLE "public"."parejas"(
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1) DEFAULT ON NULL NOT NULL,
+    "derrotas" INTEGER NOT NULL,
+    "descansos" INTEGER NOT NULL,
+    "eliminada" BOOLEAN NOT NULL,
+    "nombre" CHARACTER VARYING(255) NOT NULL
+);
+ALTER TABLE "public"."parejas" ADD CONSTRAINT "public"."CONSTRAINT_D" PRIMARY KEY("id");
+ALTER TABLE "public"."parejas" ADD CONSTRAINT "public"."uk_45sjb64cbi8rf4pm7hvwc0nlm" UNIQUE("nombre");
+ALTER TABLE "public"."enfrentamientos" ADD CONSTRAINT "public"."fk3wi5o6etabxiqfqpbttl7xrei" FOREIGN KEY("pareja1_id") REFERENCES "public"."parejas"("id") NOCHECK;
+ALTER TABLE "public"."enfrentamientos" ADD CONSTRAINT "public"."fk8repablpkqxb3k2s9mjyqh9ey" FOREIGN KEY("ganador_id") REFERENCES "public"."parejas"("id") NOCHECK;
+ALTER TABLE "public"."pareja_rivales" ADD CONSTRAINT "public"."fk643n3jjv7vp6b7gq8qyex96dv" FOREIGN KEY("pareja_id") REFERENCES "public"."parejas"("id") NOCHECK;
+ALTER TABLE "public"."enfrentamientos" ADD CONSTRAINT "public"."fkex4dfvts2vxfivlh2b86f6y6k" FOREIGN KEY("pareja2_id") REFERENCES "public"."parejas"("id") NOCHECK;